@@ -0,0 +1,53 @@
+#!/usr/bin/env bash
+# Runs the same load mix against the application on platform threads and on virtual threads and
+# compares the two. Used by ./gradlew threadingComparison, which builds the jar and the load harness.
+#
+#   scripts/compare-threading.sh <java> <boot jar> <load test classpath> <results dir> [load args...]
+#
+# Results land in <results dir>/threads-platform.json and threads-virtual.json; the virtual run
+# is printed next to the platform one. USERS sets the concurrency (default 400, twice Tomcat's
+# default of 200 platform worker threads). Needs PostgreSQL, Redis and Kafka reachable with the
+# settings in application.yml, and port 8080 free.
+set -euo pipefail
+
+if [ $# -lt 4 ]; then
+  echo "usage: $0 <java> <boot jar> <load test classpath> <results dir> [load args...]" >&2
+  exit 2
+fi
+
+java=$1
+jar=$2
+classpath=$3
+results_dir=$4
+shift 4
+users=${USERS:-400}
+ready_url=http://localhost:8080/actuator/health/readiness
+
+mkdir -p "$results_dir"
+
+run() {
+  local mode=$1 virtual=$2
+  shift 2
+  "$java" -jar "$jar" --spring.threads.virtual.enabled="$virtual" \
+    --logging.level.io.arconia=WARN --logging.level.org.springframework.data.redis=WARN \
+    --spring.jpa.show-sql=false > "$results_dir/threads-$mode.log" 2>&1 &
+  local pid=$!
+  trap "kill $pid 2>/dev/null || true" EXIT
+  until curl -fs "$ready_url" 2>/dev/null | grep -q '"status":"UP"'; do
+    if ! kill -0 $pid 2>/dev/null; then
+      echo "application exited, see $results_dir/threads-$mode.log" >&2
+      exit 1
+    fi
+    sleep 0.5
+  done
+  echo "== $mode threads, $users users"
+  # A regression of virtual against platform is the finding here, not a reason to stop
+  "$java" -cp "$classpath" io.arconia.demo.load.LoadTest --users="$users" --label="threads=$mode" \
+    --results="$results_dir/threads-$mode.json" "$@" || true
+  kill $pid
+  wait $pid 2>/dev/null || true
+  trap - EXIT
+}
+
+run platform false "$@"
+run virtual true --baseline="$results_dir/threads-platform.json" "$@"
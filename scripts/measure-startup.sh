@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+# Starts the application with the given command, waits until the readiness probe reports UP and
+# prints the time to ready and the resident set size of the process at that point.
+#
+#   scripts/measure-startup.sh java -jar build/libs/spring-boot-arconia-0.0.1-SNAPSHOT.jar
+#   scripts/measure-startup.sh build/native/nativeCompile/spring-boot-arconia
+#
+# Needs PostgreSQL, Redis and Kafka reachable with the settings in application.yml.
+# READY_URL and TIMEOUT_SECONDS override the probe URL and how long to wait (default 120s).
+set -euo pipefail
+
+if [ $# -eq 0 ]; then
+  echo "usage: $0 <command...>" >&2
+  exit 2
+fi
+
+READY_URL=${READY_URL:-http://localhost:8080/actuator/health/readiness}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+
+mkdir -p build
+start=$(date +%s%N)
+"$@" > build/startup-measurement.log 2>&1 &
+pid=$!
+trap 'kill $pid 2>/dev/null || true; wait $pid 2>/dev/null || true' EXIT
+
+deadline=$(( $(date +%s) + TIMEOUT_SECONDS ))
+until curl -fs "$READY_URL" 2>/dev/null | grep -q '"status":"UP"'; do
+  if ! kill -0 $pid 2>/dev/null; then
+    echo "process exited before becoming ready, see build/startup-measurement.log" >&2
+    exit 1
+  fi
+  if [ "$(date +%s)" -ge "$deadline" ]; then
+    echo "not ready after ${TIMEOUT_SECONDS}s" >&2
+    exit 1
+  fi
+  sleep 0.05
+done
+ready_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+rss_kb=$(awk '/^VmRSS:/ {print $2}' /proc/$pid/status)
+
+echo "{\"command\":\"$1\",\"timeToReadyMs\":$ready_ms,\"rssMiB\":$(( rss_kb / 1024 ))}"
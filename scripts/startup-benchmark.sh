@@ -0,0 +1,48 @@
+#!/usr/bin/env bash
+# Compares time to ready of the plain jar with the fast-start layout: the extracted jar with its
+# CDS archive, AOT-processed bean definitions and the fast-start profile. Used by
+# ./gradlew startupBenchmark, which builds both first.
+#
+#   scripts/startup-benchmark.sh <java> <boot jar> <fast-start dir> <results file>
+#
+# Each run is one line of JSON in the results file. RUNS sets the runs per mode (default 3).
+# Needs PostgreSQL, Redis and Kafka reachable, with the schema already migrated.
+set -euo pipefail
+
+if [ $# -ne 4 ]; then
+  echo "usage: $0 <java> <boot jar> <fast-start dir> <results file>" >&2
+  exit 2
+fi
+
+java=$1
+jar=$2
+fast_start_dir=$3
+results=$4
+runs=${RUNS:-3}
+measure="$(cd "$(dirname "$0")" && pwd)/measure-startup.sh"
+
+mkdir -p "$(dirname "$results")"
+: > "$results"
+
+record() {
+  local mode=$1 run=$2
+  shift 2
+  local result
+  result=$("$measure" "$@")
+  echo "{\"mode\":\"$mode\",\"run\":$run,${result#\{}" | tee -a "$results"
+}
+
+for run in $(seq 1 "$runs"); do
+  record default "$run" "$java" -jar "$jar"
+  record fast-start "$run" "$java" \
+    -XX:SharedArchiveFile="$fast_start_dir/application.jsa" \
+    -Dspring.aot.enabled=true \
+    -Dspring.profiles.active=fast-start \
+    -jar "$fast_start_dir/$(basename "$jar")"
+done
+
+awk -F'"timeToReadyMs":' '
+  { split($2, v, ","); mode = $0; sub(/.*"mode":"/, "", mode); sub(/".*/, "", mode)
+    sum[mode] += v[1]; n[mode]++ }
+  END { for (m in sum) printf "%-10s mean time to ready %d ms over %d runs\n", m, sum[m] / n[m], n[m] }
+' "$results"
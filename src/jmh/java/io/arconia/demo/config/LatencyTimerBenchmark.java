@@ -0,0 +1,101 @@
+package io.arconia.demo.config;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.export.CollectionRegistration;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call overhead of {@link LatencyTimer} on an SDK meter, against taking the timestamps alone
+ * and against building the instrument and attributes on every call as the observability demo
+ * endpoints used to. {@code gc.alloc.rate.norm} should stay at zero for {@code cachedOperation}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LatencyTimerBenchmark {
+
+    private SdkMeterProvider meterProvider;
+    private Meter meter;
+    private LatencyTimer.Operation operation;
+
+    @Setup
+    public void setUp() {
+        meterProvider = SdkMeterProvider.builder().registerMetricReader(new CollectingReader()).build();
+        meter = meterProvider.get("jmh");
+        operation = new LatencyTimer(meter, "jmh.latency", "Benchmark latency").operation("GET");
+    }
+
+    @TearDown
+    public void tearDown() {
+        meterProvider.close();
+    }
+
+    @Benchmark
+    public long timestampsOnly() {
+        long start = System.nanoTime();
+        return System.nanoTime() - start;
+    }
+
+    @Benchmark
+    public void cachedOperation() {
+        long start = System.nanoTime();
+        operation.record(start);
+    }
+
+    @Benchmark
+    public void instrumentPerCall() {
+        long start = System.nanoTime();
+        meter.histogramBuilder("jmh.latency.per-call").setUnit("ms").build()
+            .record((System.nanoTime() - start) / 1_000_000.0, Attributes.builder()
+                .put(AttributeKey.stringKey("operation"), "GET")
+                .put(AttributeKey.stringKey("outcome"), "success")
+                .build());
+    }
+
+    /**
+     * Keeps the SDK aggregating, as with the OTLP exporter, without ever exporting.
+     */
+    private static final class CollectingReader implements MetricReader {
+
+        @Override
+        public void register(CollectionRegistration registration) {
+        }
+
+        @Override
+        public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+            return AggregationTemporality.CUMULATIVE;
+        }
+
+        @Override
+        public CompletableResultCode forceFlush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.arconia.demo.config;
+
+import io.arconia.demo.entity.CachedSession;
+import io.opentelemetry.api.OpenTelemetry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link GenericJackson2JsonRedisSerializer} against {@link CompactValueRedisSerializer},
+ * for {@link CachedSession} and for the arbitrary JSON values cached through the cache API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    private GenericJackson2JsonRedisSerializer serializer;
+    private CachedSession session;
+    private Map<String, Object> value;
+    private byte[] sessionPayload;
+    private byte[] valuePayload;
+    private CompactValueRedisSerializer compactSerializer;
+    private byte[] compactValuePayload;
+
+    @Setup
+    public void setUp() {
+        serializer = new GenericJackson2JsonRedisSerializer();
+        session = new CachedSession("8f14e45f-ceea-467f-a0e6-3b0c2f1d9e21", "user123", "john_doe",
+            "{\"theme\":\"dark\",\"locale\":\"en\"}");
+        value = new LinkedHashMap<>();
+        value.put("name", "featured-books");
+        value.put("ids", List.of(1, 2, 3, 4, 5, 6, 7, 8));
+        value.put("ttl", 3600);
+        value.put("nested", Map.of("enabled", true, "weight", 0.75));
+        sessionPayload = serializer.serialize(session);
+        valuePayload = serializer.serialize(value);
+        compactSerializer = new CompactValueRedisSerializer(1024, 16 * 1024 * 1024, OpenTelemetry.noop().getMeter("jmh"));
+        compactValuePayload = compactSerializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serializeSession() {
+        return serializer.serialize(session);
+    }
+
+    @Benchmark
+    public Object deserializeSession() {
+        return serializer.deserialize(sessionPayload);
+    }
+
+    @Benchmark
+    public byte[] serializeValue() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserializeValue() {
+        return serializer.deserialize(valuePayload);
+    }
+
+    @Benchmark
+    public byte[] serializeValueCompact() {
+        return compactSerializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserializeValueCompact() {
+        return compactSerializer.deserialize(compactValuePayload);
+    }
+}
@@ -0,0 +1,93 @@
+package io.arconia.demo.kafka;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the Kafka JSON serializer and deserializer round trip for {@link BookEvent},
+ * including the type headers written by the producer, against the binary format.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookEventSerializationBenchmark {
+
+    private static final String TOPIC = "book-events";
+
+    private JsonSerializer<BookEvent> serializer;
+    private JsonDeserializer<BookEvent> deserializer;
+    private BookEvent event;
+    private RecordHeaders headers;
+    private byte[] payload;
+    private BookEventBinarySerializer binarySerializer;
+    private BookEventDeserializer binaryDeserializer;
+    private byte[] binaryPayload;
+
+    @Setup
+    public void setUp() {
+        serializer = new JsonSerializer<>();
+        deserializer = new JsonDeserializer<>(BookEvent.class);
+        event = new BookEvent("0b6f9c4e-7d1a-4f7e-9a55-3c2d1e0f9a11", "BOOK_UPDATED", 42L,
+            "Designing Data-Intensive Applications", "Martin Kleppmann");
+        headers = new RecordHeaders();
+        payload = serializer.serialize(TOPIC, headers, event);
+        binarySerializer = new BookEventBinarySerializer();
+        binaryDeserializer = new BookEventDeserializer();
+        binaryPayload = binarySerializer.serialize(TOPIC, event);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+        binaryDeserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public BookEvent deserializeJson() {
+        return deserializer.deserialize(TOPIC, headers, payload);
+    }
+
+    @Benchmark
+    public BookEvent roundTripJson() {
+        RecordHeaders recordHeaders = new RecordHeaders();
+        return deserializer.deserialize(TOPIC, recordHeaders, serializer.serialize(TOPIC, recordHeaders, event));
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binarySerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public BookEvent deserializeBinary() {
+        return binaryDeserializer.deserialize(TOPIC, binaryPayload);
+    }
+
+    @Benchmark
+    public BookEvent roundTripBinary() {
+        return binaryDeserializer.deserialize(TOPIC, binarySerializer.serialize(TOPIC, event));
+    }
+}
@@ -0,0 +1,92 @@
+package io.arconia.demo.repository;
+
+import io.arconia.demo.Application;
+import io.arconia.demo.entity.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a page read as managed {@link Book} entities, in a read-write and a read-only transaction,
+ * with the same page read as {@link BookView} projections. Run with {@code -prof gc} (the default here) for
+ * allocated bytes per read next to the CPU time.
+ * <p>
+ * Needs the local PostgreSQL, Redis and Kafka from the Quick Start, with at least {@code size}
+ * books imported. Override the database with {@code -Dspring.datasource.url=...}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookReadBenchmark {
+
+    @Param({"50", "500"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+    private BookQueryRepository bookQueryRepository;
+    private TransactionTemplate readWriteTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.jpa.show-sql=false",
+                "spring.kafka.listener.auto-startup=false",
+                "logging.level.root=WARN")
+            .run();
+        bookRepository = context.getBean(BookRepository.class);
+        bookQueryRepository = context.getBean(BookQueryRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Entities with dirty-checking snapshots and a flush on commit.
+     */
+    @Benchmark
+    public List<Book> entitiesReadWrite() {
+        return readWriteTransaction.execute(status -> bookRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(size)));
+    }
+
+    @Benchmark
+    public List<Book> entities() {
+        return readOnlyTransaction.execute(status -> bookRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(size)));
+    }
+
+    @Benchmark
+    public List<BookView> projections() {
+        return readOnlyTransaction.execute(status -> bookQueryRepository.findAfter(0L, size));
+    }
+}
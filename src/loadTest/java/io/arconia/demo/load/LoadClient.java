@@ -0,0 +1,160 @@
+package io.arconia.demo.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link HttpClient} on virtual threads that records the latency of every request in an HDR
+ * histogram per endpoint label, e.g. {@code GET /api/books/{id}}.
+ * <p>
+ * A response whose status is not one of the expected ones counts as an error, and so does an I/O
+ * failure; only the former has a latency. In open-loop runs the first request of an operation is
+ * timed from when it was scheduled, not from when it was sent, so queueing in the generator shows
+ * up in the percentiles instead of being hidden (coordinated omission).
+ */
+final class LoadClient implements AutoCloseable {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI baseUrl;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient http;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final ThreadLocal<Long> scheduledAt = new ThreadLocal<>();
+
+    LoadClient(URI baseUrl) {
+        this.baseUrl = baseUrl;
+        this.http = HttpClient.newBuilder()
+            .executor(executor)
+            .connectTimeout(Duration.ofSeconds(5))
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    }
+
+    HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+    }
+
+    HttpRequest.Builder json(String path, String method, Object body) {
+        return request(path)
+            .header("Content-Type", "application/json")
+            .method(method, HttpRequest.BodyPublishers.ofString(write(body)));
+    }
+
+    /**
+     * Sends the request and records it under {@code endpoint}. Returns {@code null} if it failed
+     * without a response.
+     */
+    HttpResponse<String> send(String endpoint, HttpRequest.Builder request, int... expectedStatuses) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        Long scheduled = scheduledAt.get();
+        scheduledAt.remove();
+        long start = scheduled != null ? scheduled : System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException ex) {
+            stats.errors.increment();
+            return null;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        stats.latency.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        if (!isExpected(response.statusCode(), expectedStatuses)) {
+            stats.errors.increment();
+        }
+        return response;
+    }
+
+    /**
+     * Times the next request on this thread from {@code nanoTime} instead of from when it is sent.
+     */
+    void scheduledAt(long nanoTime) {
+        scheduledAt.set(nanoTime);
+    }
+
+    JsonNode read(HttpResponse<String> response) {
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (IOException ex) {
+            throw new IllegalStateException("Response is not JSON: " + response.body(), ex);
+        }
+    }
+
+    String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Discards everything recorded so far, e.g. at the end of the warmup.
+     */
+    void reset() {
+        endpoints.values().forEach(endpoint -> {
+            endpoint.latency.reset();
+            endpoint.errors.reset();
+        });
+    }
+
+    /**
+     * Latencies in microseconds and error counts recorded since the last reset, by endpoint.
+     */
+    Map<String, Interval> interval() {
+        Map<String, Interval> intervals = new TreeMap<>();
+        endpoints.forEach((name, endpoint) -> {
+            Interval interval = new Interval(endpoint.latency.getIntervalHistogram(), endpoint.errors.sumThenReset());
+            if (interval.latency().getTotalCount() > 0 || interval.errors() > 0) {
+                intervals.put(name, interval);
+            }
+        });
+        return intervals;
+    }
+
+    @Override
+    public void close() {
+        http.close();
+        executor.close();
+    }
+
+    private static boolean isExpected(int status, int[] expectedStatuses) {
+        if (expectedStatuses.length == 0) {
+            return status < 400;
+        }
+        for (int expected : expectedStatuses) {
+            if (status == expected) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    record Interval(Histogram latency, long errors) {
+    }
+
+    private static final class Endpoint {
+
+        private final Recorder latency = new Recorder(3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
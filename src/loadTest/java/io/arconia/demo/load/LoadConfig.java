@@ -0,0 +1,116 @@
+package io.arconia.demo.load;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Settings of a load run, from {@code --name=value} arguments.
+ *
+ * @param rate  operations per second across all users, or {@code 0} for a closed loop where each
+ *              user starts its next operation as soon as the previous one finished
+ * @param mix   relative weight of each scenario in {@link Scenarios}
+ * @param label free-form description of the server setup, e.g. {@code threads=virtual}, stored
+ *              with the settings so that runs against different setups are not mistaken for
+ *              comparable ones
+ */
+record LoadConfig(URI baseUrl,
+                  Duration warmup,
+                  Duration duration,
+                  int users,
+                  double rate,
+                  Map<String, Integer> mix,
+                  int seedBooks,
+                  int seedSessions,
+                  Path results,
+                  Path baseline,
+                  double tolerance,
+                  String version,
+                  String label) {
+
+    static final String DEFAULT_MIX =
+        "book-read:35,book-list:10,book-search:15,book-crud:10,session:15,cache-values:15";
+    private static final Set<String> OPTIONS = Set.of("url", "warmup", "duration", "users", "rate", "mix",
+        "seed-books", "seed-sessions", "results", "baseline", "tolerance", "version", "label");
+
+    static LoadConfig parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        LoadConfig config = new LoadConfig(
+            URI.create(stripTrailingSlash(options.getOrDefault("url", "http://localhost:8080"))),
+            duration(options.getOrDefault("warmup", "15s")),
+            duration(options.getOrDefault("duration", "60s")),
+            Integer.parseInt(options.getOrDefault("users", "32")),
+            Double.parseDouble(options.getOrDefault("rate", "0")),
+            mix(options.getOrDefault("mix", DEFAULT_MIX)),
+            Integer.parseInt(options.getOrDefault("seed-books", "200")),
+            Integer.parseInt(options.getOrDefault("seed-sessions", "100")),
+            Path.of(options.getOrDefault("results", "build/results/load/results.json")),
+            options.containsKey("baseline") ? Path.of(options.get("baseline")) : null,
+            Double.parseDouble(options.getOrDefault("tolerance", "0.10")),
+            options.getOrDefault("version", "unknown"),
+            options.getOrDefault("label", ""));
+        options.keySet().removeAll(OPTIONS);
+        if (!options.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options " + options.keySet());
+        }
+        if (config.users() < 1 || config.duration().isZero() || config.seedBooks() < 1 || config.seedSessions() < 1) {
+            throw new IllegalArgumentException("users, duration, seed-books and seed-sessions must be positive");
+        }
+        return config;
+    }
+
+    /**
+     * Settings that make two runs comparable, stored with the results.
+     */
+    Map<String, Object> describe() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("url", baseUrl.toString());
+        settings.put("label", label);
+        settings.put("warmupSeconds", warmup.toSeconds());
+        settings.put("durationSeconds", duration.toSeconds());
+        settings.put("users", users);
+        settings.put("rate", rate);
+        settings.put("mix", mix);
+        settings.put("seedBooks", seedBooks);
+        settings.put("seedSessions", seedSessions);
+        return settings;
+    }
+
+    /**
+     * Parses {@code 500ms}, {@code 30s} or {@code 2m}.
+     */
+    private static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration " + value);
+        };
+    }
+
+    private static Map<String, Integer> mix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            mix.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        return mix;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
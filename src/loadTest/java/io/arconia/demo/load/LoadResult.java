@@ -0,0 +1,144 @@
+package io.arconia.demo.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Outcome of a load run as written to the results file. Latencies are in milliseconds.
+ */
+record LoadResult(String version,
+                  String startedAt,
+                  Map<String, Object> settings,
+                  double measuredSeconds,
+                  List<EndpointResult> endpoints,
+                  EndpointResult total) {
+
+    private static final double ERROR_RATE_MARGIN = 0.01;
+
+    record EndpointResult(String endpoint,
+                          long requests,
+                          long errors,
+                          double throughput,
+                          double p50Ms,
+                          double p99Ms,
+                          double p999Ms,
+                          double maxMs) {
+
+        static EndpointResult of(String endpoint, Histogram micros, long errors, double seconds) {
+            return new EndpointResult(endpoint, micros.getTotalCount(), errors,
+                round(micros.getTotalCount() / seconds),
+                millis(micros.getValueAtPercentile(50)),
+                millis(micros.getValueAtPercentile(99)),
+                millis(micros.getValueAtPercentile(99.9)),
+                millis(micros.getMaxValue()));
+        }
+    }
+
+    static LoadResult of(String version, String startedAt, Map<String, Object> settings, double seconds,
+                         Map<String, LoadClient.Interval> intervals) {
+        List<EndpointResult> endpoints = new ArrayList<>();
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (Map.Entry<String, LoadClient.Interval> entry : intervals.entrySet()) {
+            LoadClient.Interval interval = entry.getValue();
+            endpoints.add(EndpointResult.of(entry.getKey(), interval.latency(), interval.errors(), seconds));
+            total.add(interval.latency());
+            totalErrors += interval.errors();
+        }
+        return new LoadResult(version, startedAt, settings, round(seconds), endpoints,
+            EndpointResult.of("total", total, totalErrors, seconds));
+    }
+
+    String table() {
+        StringBuilder table = new StringBuilder(String.format("%-42s %9s %7s %9s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (EndpointResult row : rowsWithTotal()) {
+            table.append(String.format("%-42s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", row.endpoint(),
+                row.requests(), row.errors(), row.throughput(), row.p50Ms(), row.p99Ms(), row.p999Ms(), row.maxMs()));
+        }
+        return table.toString();
+    }
+
+    /**
+     * p50, p99 and throughput next to those of {@code baseline}, for endpoints present in both.
+     */
+    String comparisonTable(LoadResult baseline) {
+        Map<String, EndpointResult> before = byEndpoint(baseline);
+        StringBuilder table = new StringBuilder(String.format("%-42s %19s %19s %21s%n",
+            "endpoint", "p50 ms (base/now)", "p99 ms (base/now)", "req/s (base/now)"));
+        for (EndpointResult now : rowsWithTotal()) {
+            EndpointResult then = before.get(now.endpoint());
+            if (then != null) {
+                table.append(String.format("%-42s %9.2f/%-9.2f %9.2f/%-9.2f %10.1f/%-10.1f%n", now.endpoint(),
+                    then.p50Ms(), now.p50Ms(), then.p99Ms(), now.p99Ms(), then.throughput(), now.throughput()));
+            }
+        }
+        return table.toString();
+    }
+
+    /**
+     * Endpoints whose p50 or p99 grew, or whose throughput fell, by more than {@code tolerance}
+     * (e.g. {@code 0.1} for 10%) against {@code baseline}, or whose error rate rose by more than
+     * one percentage point. p99.9 and max are reported but not compared, since a single outlier
+     * moves them.
+     */
+    List<String> regressionsAgainst(LoadResult baseline, double tolerance) {
+        Map<String, EndpointResult> before = byEndpoint(baseline);
+        List<String> regressions = new ArrayList<>();
+        for (EndpointResult now : rowsWithTotal()) {
+            EndpointResult then = before.get(now.endpoint());
+            if (then == null) {
+                continue;
+            }
+            check(regressions, now.endpoint(), "p50", then.p50Ms(), now.p50Ms(), tolerance, true);
+            check(regressions, now.endpoint(), "p99", then.p99Ms(), now.p99Ms(), tolerance, true);
+            check(regressions, now.endpoint(), "throughput", then.throughput(), now.throughput(), tolerance, false);
+            if (errorRate(now) > errorRate(then) + ERROR_RATE_MARGIN) {
+                regressions.add(String.format("%s: error rate %.2f%% -> %.2f%%", now.endpoint(),
+                    errorRate(then) * 100, errorRate(now) * 100));
+            }
+        }
+        return regressions;
+    }
+
+    private List<EndpointResult> rowsWithTotal() {
+        List<EndpointResult> rows = new ArrayList<>(endpoints);
+        rows.add(total);
+        return rows;
+    }
+
+    private static Map<String, EndpointResult> byEndpoint(LoadResult result) {
+        Map<String, EndpointResult> rows = result.endpoints().stream()
+            .collect(Collectors.toMap(EndpointResult::endpoint, Function.identity()));
+        rows.put(result.total().endpoint(), result.total());
+        return rows;
+    }
+
+    private static void check(List<String> regressions, String endpoint, String metric,
+                              double then, double now, double tolerance, boolean lowerIsBetter) {
+        if (then <= 0) {
+            return;
+        }
+        double change = (now - then) / then;
+        if (lowerIsBetter ? change > tolerance : change < -tolerance) {
+            regressions.add(String.format("%s: %s %.2f -> %.2f (%+.1f%%)", endpoint, metric, then, now, change * 100));
+        }
+    }
+
+    private static double errorRate(EndpointResult result) {
+        return result.requests() == 0 ? 0 : (double) result.errors() / result.requests();
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
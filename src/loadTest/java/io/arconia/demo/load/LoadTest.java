@@ -0,0 +1,180 @@
+package io.arconia.demo.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator for a running instance of the application: {@code ./gradlew loadTest}.
+ * <p>
+ * Seeds test data, runs the {@link Scenarios} mix for the warmup and then the measured period,
+ * prints throughput and latency percentiles per endpoint and writes them as JSON. With
+ * {@code --baseline} the results are compared against an earlier results file, and the run fails
+ * if an endpoint regressed by more than {@code --tolerance}.
+ * <p>
+ * By default each of {@code --users} virtual threads runs one operation after another (closed
+ * loop). With {@code --rate} operations start on a fixed schedule instead (open loop), at most
+ * {@code --users} at a time, and are timed from their scheduled start.
+ */
+public final class LoadTest {
+
+    private static final int READY_TIMEOUT_SECONDS = 60;
+
+    private final LoadConfig config;
+    private final LoadClient client;
+    private final Scenarios scenarios;
+    private final Scenarios.Scenario[] weighted;
+    private volatile boolean running = true;
+
+    private LoadTest(LoadConfig config, LoadClient client) {
+        this.config = config;
+        this.client = client;
+        this.scenarios = new Scenarios(client);
+        List<Scenarios.Scenario> slots = new ArrayList<>();
+        config.mix().forEach((name, weight) -> {
+            Scenarios.Scenario scenario = scenarios.get(name);
+            for (int i = 0; i < weight; i++) {
+                slots.add(scenario);
+            }
+        });
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("The scenario mix has no weight");
+        }
+        this.weighted = slots.toArray(Scenarios.Scenario[]::new);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.parse(args);
+        LoadResult result;
+        try (LoadClient client = new LoadClient(config.baseUrl())) {
+            result = new LoadTest(config, client).run();
+        }
+        System.out.println();
+        System.out.print(result.table());
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Files.createDirectories(config.results().toAbsolutePath().getParent());
+        objectMapper.writeValue(config.results().toFile(), result);
+        System.out.println("\nResults written to " + config.results());
+
+        if (config.baseline() != null) {
+            LoadResult baseline = objectMapper.readValue(config.baseline().toFile(), LoadResult.class);
+            if (!objectMapper.writeValueAsString(config.describe())
+                    .equals(objectMapper.writeValueAsString(baseline.settings()))) {
+                System.out.println("Warning: baseline " + config.baseline() + " was run with different settings "
+                    + baseline.settings());
+            }
+            System.out.println("\nAgainst " + config.baseline() + " (" + baseline.version() + "):");
+            System.out.print(result.comparisonTable(baseline));
+            List<String> regressions = result.regressionsAgainst(baseline, config.tolerance());
+            if (!regressions.isEmpty()) {
+                System.out.println("\nRegressions against " + config.baseline() + " (" + baseline.version() + "):");
+                regressions.forEach(regression -> System.out.println("  " + regression));
+                System.exit(1);
+            }
+            System.out.println("No regressions against " + config.baseline() + " (" + baseline.version() + ")");
+        }
+    }
+
+    private LoadResult run() throws InterruptedException {
+        awaitReady();
+        System.out.printf("Seeding %d books and %d sessions%n", config.seedBooks(), config.seedSessions());
+        scenarios.seed(config.seedBooks(), config.seedSessions());
+
+        String startedAt = Instant.now().toString();
+        System.out.printf("Running %s with %d users%s: %ds warmup, %ds measured%n", config.mix(), config.users(),
+            config.rate() > 0 ? " at " + config.rate() + " ops/s" : "",
+            config.warmup().toSeconds(), config.duration().toSeconds());
+        Thread generator = Thread.ofPlatform().name("load-generator").start(
+            config.rate() > 0 ? this::openLoop : this::closedLoop);
+
+        Thread.sleep(config.warmup());
+        client.reset();
+        long measureStart = System.nanoTime();
+        Thread.sleep(config.duration());
+        Map<String, LoadClient.Interval> intervals = client.interval();
+        double seconds = (System.nanoTime() - measureStart) / 1e9;
+        running = false;
+        generator.join();
+
+        scenarios.cleanUp();
+        return LoadResult.of(config.version(), startedAt, config.describe(), seconds, intervals);
+    }
+
+    private void closedLoop() {
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.users(); i++) {
+                users.execute(() -> {
+                    while (running) {
+                        runOne();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Starts operations at fixed intervals. When all {@code users} slots are busy the schedule
+     * falls behind, and the wait is charged to the operations that were due meanwhile.
+     */
+    private void openLoop() {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / config.rate());
+        Semaphore slots = new Semaphore(config.users());
+        try (ExecutorService operations = Executors.newVirtualThreadPerTaskExecutor()) {
+            long next = System.nanoTime();
+            while (running) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                slots.acquireUninterruptibly();
+                long scheduled = next;
+                operations.execute(() -> {
+                    try {
+                        client.scheduledAt(scheduled);
+                        runOne();
+                    } finally {
+                        slots.release();
+                    }
+                });
+                next += interval;
+            }
+        }
+    }
+
+    private void runOne() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            weighted[random.nextInt(weighted.length)].run(random);
+        } catch (RuntimeException ex) {
+            System.err.println("Operation failed: " + ex);
+        }
+    }
+
+    private void awaitReady() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(READY_TIMEOUT_SECONDS);
+        while (true) {
+            HttpResponse<String> response = client.send("readiness",
+                client.request("/actuator/health/readiness").GET(), 200);
+            if (response != null && response.statusCode() == 200) {
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(config.baseUrl() + " not ready after " + READY_TIMEOUT_SECONDS + "s");
+            }
+            Thread.sleep(500);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package io.arconia.demo.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.net.URLEncoder;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The traffic a load run mixes, against {@code BookController} and {@code CacheController}.
+ * <p>
+ * {@link #seed} creates the books, sessions and cache values the read scenarios pick from, with
+ * ISBNs, user ids and keys unique to the run so that runs against the same database do not
+ * collide. Seeding is not recorded. Scenarios that write clean up after themselves.
+ */
+final class Scenarios {
+
+    private static final String[] WORDS = {"Spring", "Kafka", "Redis", "Postgres", "Java", "Cloud", "Native",
+        "Reactive", "Patterns", "Systems", "Streams", "Design", "Data", "Observability", "Concurrency"};
+    private static final int AUTHORS = 25;
+    private static final int CACHE_KEYS = 500;
+    private static final int BATCH_SIZE = 10;
+
+    private final LoadClient client;
+    private final String runId = Long.toString(System.currentTimeMillis() % 60_466_176L, 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Scenario> scenarios = new LinkedHashMap<>();
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<String[]> sessions = new ArrayList<>();
+    private final Map<Long, String> etags = new ConcurrentHashMap<>();
+
+    Scenarios(LoadClient client) {
+        this.client = client;
+        scenarios.put("book-read", this::bookRead);
+        scenarios.put("book-list", this::bookList);
+        scenarios.put("book-search", this::bookSearch);
+        scenarios.put("book-crud", this::bookCrud);
+        scenarios.put("session", this::session);
+        scenarios.put("cache-values", this::cacheValues);
+    }
+
+    Scenario get(String name) {
+        Scenario scenario = scenarios.get(name);
+        if (scenario == null) {
+            throw new IllegalArgumentException("Unknown scenario " + name + ", expected one of " + scenarios.keySet());
+        }
+        return scenario;
+    }
+
+    void seed(int books, int sessionCount) {
+        for (int i = 0; i < books; i++) {
+            HttpResponse<String> response = client.send("seed", client.json("/api/books", "POST", newBook()), 201);
+            if (response == null || response.statusCode() != 201) {
+                throw new IllegalStateException("Could not seed books: " + describe(response));
+            }
+            bookIds.add(client.read(response).get("id").asLong());
+        }
+        for (int i = 0; i < sessionCount; i++) {
+            HttpResponse<String> response = client.send("seed",
+                client.json("/api/cache/sessions", "POST", newSession()), 201);
+            if (response == null || response.statusCode() != 201) {
+                throw new IllegalStateException("Could not seed sessions: " + describe(response));
+            }
+            JsonNode session = client.read(response);
+            sessions.add(new String[] {session.get("id").asText(), session.get("userId").asText()});
+        }
+        for (int i = 0; i < CACHE_KEYS; i += BATCH_SIZE) {
+            client.send("seed", client.json("/api/cache/values/batch", "POST", Map.of("entries",
+                IntStream.range(i, i + BATCH_SIZE).mapToObj(this::cacheEntry).toList())));
+        }
+    }
+
+    /**
+     * Deletes the seeded books and sessions; cache values expire on their own.
+     */
+    void cleanUp() {
+        bookIds.forEach(id -> client.send("cleanup", client.request("/api/books/" + id).DELETE(), 204, 404));
+        sessions.forEach(session ->
+            client.send("cleanup", client.request("/api/cache/sessions/" + session[0]).DELETE(), 204));
+    }
+
+    /**
+     * Reads a book, then revalidates it with the ETag from an earlier read.
+     */
+    private void bookRead(ThreadLocalRandom random) {
+        long id = pick(bookIds, random);
+        String etag = etags.get(id);
+        if (etag == null) {
+            HttpResponse<String> response = client.send("GET /api/books/{id}",
+                client.request("/api/books/" + id).GET(), 200);
+            if (response != null) {
+                response.headers().firstValue("ETag").ifPresent(value -> etags.put(id, value));
+            }
+        } else {
+            client.send("GET /api/books/{id} If-None-Match",
+                client.request("/api/books/" + id).header("If-None-Match", etag).GET(), 304, 200);
+            if (random.nextInt(4) == 0) {
+                etags.remove(id);
+            }
+        }
+    }
+
+    private void bookList(ThreadLocalRandom random) {
+        long after = pick(bookIds, random) - 1;
+        client.send("GET /api/books", client.request("/api/books?after=" + after + "&size=50").GET(), 200);
+        client.send("GET /api/books/author/{author}",
+            client.request("/api/books/author/" + encode(author(random.nextInt(AUTHORS)))).GET(), 200);
+    }
+
+    private void bookSearch(ThreadLocalRandom random) {
+        String title = WORDS[random.nextInt(WORDS.length)];
+        client.send("GET /api/books/search", client.request("/api/books/search?title=" + encode(title) + "&limit=20").GET(), 200);
+    }
+
+    /**
+     * Creates a book, reads it, updates it with {@code If-Match} and deletes it.
+     */
+    private void bookCrud(ThreadLocalRandom random) {
+        HttpResponse<String> created = client.send("POST /api/books", client.json("/api/books", "POST", newBook()), 201);
+        if (created == null || created.statusCode() != 201) {
+            return;
+        }
+        JsonNode book = client.read(created);
+        String path = "/api/books/" + book.get("id").asLong();
+        HttpResponse<String> read = client.send("GET /api/books/{id}", client.request(path).GET(), 200);
+        Map<String, Object> update = new LinkedHashMap<>();
+        update.put("title", book.get("title").asText() + " (2nd edition)");
+        update.put("author", book.get("author").asText());
+        update.put("isbn", book.get("isbn").asText());
+        update.put("publishedYear", book.get("publishedYear").asInt() + 1);
+        var put = client.json(path, "PUT", update);
+        if (read != null) {
+            read.headers().firstValue("ETag").ifPresent(etag -> put.header("If-Match", etag));
+        }
+        client.send("PUT /api/books/{id}", put, 200);
+        client.send("DELETE /api/books/{id}", client.request(path).DELETE(), 204);
+    }
+
+    /**
+     * Creates a session, reads it a few times as a logged-in user would, lists the user's
+     * sessions, then logs out. Also reads one of the seeded sessions.
+     */
+    private void session(ThreadLocalRandom random) {
+        String[] seeded = pick(sessions, random);
+        client.send("GET /api/cache/sessions/{id}", client.request("/api/cache/sessions/" + seeded[0]).GET(), 200);
+        HttpResponse<String> created = client.send("POST /api/cache/sessions",
+            client.json("/api/cache/sessions", "POST", newSession()), 201);
+        if (created == null || created.statusCode() != 201) {
+            return;
+        }
+        JsonNode session = client.read(created);
+        String path = "/api/cache/sessions/" + session.get("id").asText();
+        for (int i = 0; i < 3; i++) {
+            client.send("GET /api/cache/sessions/{id}", client.request(path).GET(), 200);
+        }
+        client.send("GET /api/cache/sessions/user/{userId}",
+            client.request("/api/cache/sessions/user/" + encode(session.get("userId").asText())).GET(), 200);
+        client.send("DELETE /api/cache/sessions/{id}", client.request(path).DELETE(), 204);
+    }
+
+    /**
+     * Single and batched reads of the seeded keys, plus a write of one of them.
+     */
+    private void cacheValues(ThreadLocalRandom random) {
+        int key = random.nextInt(CACHE_KEYS);
+        client.send("GET /api/cache/values/{key}", client.request("/api/cache/values/" + cacheKey(key)).GET(), 200);
+        String keys = IntStream.range(0, BATCH_SIZE)
+            .mapToObj(i -> cacheKey(random.nextInt(CACHE_KEYS)))
+            .collect(Collectors.joining(","));
+        client.send("GET /api/cache/values", client.request("/api/cache/values?keys=" + keys).GET(), 200);
+        client.send("POST /api/cache/values", client.json("/api/cache/values", "POST", cacheEntry(key)), 200);
+        if (random.nextInt(10) == 0) {
+            int first = random.nextInt(CACHE_KEYS - BATCH_SIZE);
+            client.send("POST /api/cache/values/batch", client.json("/api/cache/values/batch", "POST", Map.of("entries",
+                IntStream.range(first, first + BATCH_SIZE).mapToObj(this::cacheEntry).toList())), 200);
+        }
+    }
+
+    private Map<String, Object> newBook() {
+        long n = sequence.incrementAndGet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Object> book = new LinkedHashMap<>();
+        book.put("title", WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + n);
+        book.put("author", author(random.nextInt(AUTHORS)));
+        book.put("isbn", "LT-" + runId + "-" + n);
+        book.put("publishedYear", 1990 + random.nextInt(35));
+        return book;
+    }
+
+    private Map<String, String> newSession() {
+        long n = sequence.incrementAndGet();
+        return Map.of("userId", "load-" + runId + "-" + (n % 50), "username", "user" + n, "data", "{\"theme\":\"dark\"}");
+    }
+
+    private Map<String, Object> cacheEntry(int key) {
+        return Map.of("key", cacheKey(key), "value", Map.of("id", key, "name", "value " + key), "ttl", 600);
+    }
+
+    private String cacheKey(int key) {
+        return "load:" + runId + ":" + key;
+    }
+
+    private String author(int index) {
+        return "Load Author " + runId + " " + index;
+    }
+
+    private static <T> T pick(List<T> values, ThreadLocalRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static String describe(HttpResponse<String> response) {
+        return response == null ? "no response" : response.statusCode() + " " + response.body();
+    }
+
+    @FunctionalInterface
+    interface Scenario {
+
+        void run(ThreadLocalRandom random);
+    }
+}
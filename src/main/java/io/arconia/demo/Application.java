@@ -1,10 +1,13 @@
 package io.arconia.demo;
 
+import io.arconia.demo.config.NativeRuntimeHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.function.RouterFunction;
 import org.springframework.web.servlet.function.RouterFunctions;
 import org.springframework.web.servlet.function.ServerResponse;
@@ -14,6 +17,8 @@ import org.springframework.web.servlet.function.ServerResponse;
  * This application demonstrates integration with PostgreSQL, Redis, Kafka, and OpenTelemetry.
  */
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class Application {
 
     private static final Logger logger = LoggerFactory.getLogger(Application.class);
@@ -0,0 +1,240 @@
+package io.arconia.demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.Meter;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Redis value serializer with a three byte header instead of Jackson {@code @class} properties.
+ * <p>
+ * Layout: {@code 0xFF} marker, codec ({@code 0} none, {@code 1} Deflate), payload type, then for
+ * Deflate the uncompressed length as four bytes, then the payload. Strings are stored as raw UTF-8,
+ * and plain JSON values (maps, lists, strings, booleans, integers and doubles) as untyped JSON.
+ * Any other object falls back to {@link GenericJackson2JsonRedisSerializer}. Payloads of at least
+ * {@code compressionThreshold} bytes are deflated when that makes them smaller.
+ * <p>
+ * Values are read from a shared Redis, so the header is validated before it is trusted: truncated
+ * frames, unknown codecs and declared lengths outside {@code 0..maxValueSize} are rejected with a
+ * {@link SerializationException} instead of sizing a buffer from them.
+ * <p>
+ * {@code 0xFF} never starts a JSON document, so entries written by
+ * {@link GenericJackson2JsonRedisSerializer} before the switch are still read.
+ */
+public class CompactValueRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte MARKER = (byte) 0xFF;
+    private static final byte CODEC_NONE = 0;
+    private static final byte CODEC_DEFLATE = 1;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_JSON = 2;
+    private static final byte TYPE_TYPED_JSON = 3;
+    private static final int HEADER_SIZE = 3;
+    private static final int LENGTH_SIZE = 4;
+
+    private static final AttributeKey<String> OPERATION = AttributeKey.stringKey("operation");
+    private static final Attributes ENCODE = Attributes.of(OPERATION, "encode");
+    private static final Attributes DECODE = Attributes.of(OPERATION, "decode");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GenericJackson2JsonRedisSerializer typedSerializer = new GenericJackson2JsonRedisSerializer();
+    private final int compressionThreshold;
+    private final int maxValueSize;
+    private final DoubleHistogram compressionRatio;
+    private final DoubleHistogram duration;
+
+    public CompactValueRedisSerializer(int compressionThreshold, int maxValueSize, Meter meter) {
+        this.compressionThreshold = compressionThreshold;
+        this.maxValueSize = maxValueSize;
+        this.compressionRatio = meter.histogramBuilder("arconia.cache.codec.compression.ratio")
+            .setDescription("Uncompressed to compressed size of deflated cache values")
+            .build();
+        this.duration = meter.histogramBuilder("arconia.cache.codec.duration")
+            .setDescription("Time to encode or decode a cache value")
+            .setUnit("ms")
+            .build();
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        long start = System.nanoTime();
+        byte type;
+        byte[] payload;
+        if (value instanceof String text) {
+            type = TYPE_STRING;
+            payload = text.getBytes(StandardCharsets.UTF_8);
+        } else if (isPlainJson(value)) {
+            type = TYPE_JSON;
+            payload = writeJson(value);
+        } else {
+            type = TYPE_TYPED_JSON;
+            payload = typedSerializer.serialize(value);
+        }
+        byte[] encoded = payload.length >= compressionThreshold ? deflate(type, payload) : null;
+        if (encoded == null) {
+            encoded = frame(CODEC_NONE, type, payload);
+        }
+        duration.record(elapsedMillis(start), ENCODE);
+        return encoded;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MARKER) {
+            return typedSerializer.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_SIZE) {
+            throw new SerializationException("Truncated cache value header");
+        }
+        long start = System.nanoTime();
+        byte[] payload = switch (bytes[1]) {
+            case CODEC_NONE -> slice(bytes, HEADER_SIZE);
+            case CODEC_DEFLATE -> inflate(bytes);
+            default -> throw new SerializationException("Unknown cache value codec " + bytes[1]);
+        };
+        Object value = switch (bytes[2]) {
+            case TYPE_STRING -> new String(payload, StandardCharsets.UTF_8);
+            case TYPE_JSON -> readJson(payload);
+            case TYPE_TYPED_JSON -> typedSerializer.deserialize(payload);
+            default -> throw new SerializationException("Unknown cache value type " + bytes[2]);
+        };
+        duration.record(elapsedMillis(start), DECODE);
+        return value;
+    }
+
+    /**
+     * Whether the value reads back as an equal object from untyped JSON.
+     */
+    private static boolean isPlainJson(Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean
+            || value instanceof Integer || value instanceof Double) {
+            return true;
+        }
+        if (value instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!(entry.getKey() instanceof String) || !isPlainJson(entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (value instanceof List<?> list) {
+            for (Object element : list) {
+                if (!isPlainJson(element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private byte[] deflate(byte type, byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2 + 16);
+            out.write(MARKER);
+            out.write(CODEC_DEFLATE);
+            out.write(type);
+            out.writeBytes(ByteBuffer.allocate(LENGTH_SIZE).putInt(payload.length).array());
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            if (out.size() >= payload.length + HEADER_SIZE) {
+                return null;
+            }
+            compressionRatio.record((double) payload.length / out.size());
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] inflate(byte[] bytes) {
+        int offset = HEADER_SIZE + LENGTH_SIZE;
+        if (bytes.length < offset) {
+            throw new SerializationException("Truncated compressed cache value header");
+        }
+        int length = ByteBuffer.wrap(bytes, HEADER_SIZE, LENGTH_SIZE).getInt();
+        if (length < 0 || length > maxValueSize) {
+            throw new SerializationException(
+                "Compressed cache value declares " + length + " bytes, outside 0.." + maxValueSize);
+        }
+        byte[] payload = new byte[length];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, bytes.length - offset);
+            int read = 0;
+            while (read < payload.length) {
+                int n = inflater.inflate(payload, read, payload.length - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new SerializationException("Truncated compressed cache value");
+                }
+                read += n;
+            }
+            return payload;
+        } catch (DataFormatException ex) {
+            throw new SerializationException("Corrupt compressed cache value", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] frame(byte codec, byte type, byte[] payload) {
+        byte[] framed = new byte[HEADER_SIZE + payload.length];
+        framed[0] = MARKER;
+        framed[1] = codec;
+        framed[2] = type;
+        System.arraycopy(payload, 0, framed, HEADER_SIZE, payload.length);
+        return framed;
+    }
+
+    private static byte[] slice(byte[] bytes, int offset) {
+        byte[] payload = new byte[bytes.length - offset];
+        System.arraycopy(bytes, offset, payload, 0, payload.length);
+        return payload;
+    }
+
+    private byte[] writeJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException ex) {
+            throw new SerializationException("Could not write cache value as JSON", ex);
+        }
+    }
+
+    private Object readJson(byte[] payload) {
+        try {
+            return objectMapper.readValue(payload, Object.class);
+        } catch (IOException ex) {
+            throw new SerializationException("Could not read cache value from JSON", ex);
+        }
+    }
+
+    private static double elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+}
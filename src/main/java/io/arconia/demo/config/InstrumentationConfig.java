@@ -0,0 +1,35 @@
+package io.arconia.demo.config;
+
+import io.opentelemetry.api.metrics.Meter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.function.SingletonSupplier;
+
+/**
+ * Adds {@link RepositoryLatencyListener} to every Spring Data repository, JPA and Redis alike.
+ */
+@Configuration(proxyBeanMethods = false)
+public class InstrumentationConfig {
+
+    /**
+     * Static, so registering the post-processor does not initialize this configuration or the
+     * {@link Meter} early. The listener is created when the first repository is built.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryLatencyPostProcessor(ObjectProvider<Meter> meter) {
+        SingletonSupplier<RepositoryLatencyListener> listener =
+            SingletonSupplier.of(() -> new RepositoryLatencyListener(meter.getObject()));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(listener.obtain()));
+                }
+                return bean;
+            }
+        };
+    }
+}
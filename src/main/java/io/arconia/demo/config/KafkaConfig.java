@@ -1,14 +1,18 @@
 package io.arconia.demo.config;
 
 import io.arconia.demo.kafka.BookEvent;
+import io.arconia.demo.kafka.BookEventBinarySerializer;
+import io.arconia.demo.kafka.BookEventDeserializer;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
@@ -16,11 +20,15 @@ import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.serializer.DelegatingByTopicSerializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * Kafka configuration for Spring Kafka.
@@ -35,6 +43,12 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${demo.kafka.binary-topics:}")
+    private List<String> binaryTopics;
+
     @Bean
     public NewTopic bookEventsTopic() {
         return TopicBuilder.name("book-events")
@@ -47,11 +61,28 @@ public class KafkaConfig {
     public ProducerFactory<String, BookEvent> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), bookEventSerializer());
+    }
+
+    /**
+     * Writes {@link BookEvent} as JSON, except on the topics listed in {@code demo.kafka.binary-topics},
+     * which use the compact binary format. Consumers read both formats, so a topic can be switched
+     * once every consumer runs {@link BookEventDeserializer}.
+     */
+    @SuppressWarnings("unchecked")
+    private Serializer<BookEvent> bookEventSerializer() {
+        Serializer<BookEvent> json = new JsonSerializer<>();
+        if (binaryTopics.isEmpty()) {
+            return json;
+        }
+        Map<Pattern, Serializer<?>> delegates = new LinkedHashMap<>();
+        BookEventBinarySerializer binary = new BookEventBinarySerializer();
+        binaryTopics.forEach(topic -> delegates.put(Pattern.compile(Pattern.quote(topic.trim())), binary));
+        return (Serializer<BookEvent>) (Serializer<?>) new DelegatingByTopicSerializer(delegates, json);
     }
 
     @Bean
@@ -65,12 +96,11 @@ public class KafkaConfig {
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, BookEventDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         return new DefaultKafkaConsumerFactory<>(props,
             new StringDeserializer(),
-            new JsonDeserializer<>(BookEvent.class));
+            new BookEventDeserializer());
     }
 
     @Bean
@@ -79,6 +109,34 @@ public class KafkaConfig {
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         factory.setConcurrency(3);
+        configureListenerThreads(factory);
+        return factory;
+    }
+
+    /**
+     * Delivers whole poll batches to the listener and commits offsets once per batch.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, BookEvent> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, BookEvent> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(3);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        configureListenerThreads(factory);
         return factory;
     }
+
+    /**
+     * Runs listener consumer threads as virtual threads when {@code spring.threads.virtual.enabled}
+     * is set. Spring Boot only applies that property to its own auto-configured container factory.
+     */
+    private void configureListenerThreads(ConcurrentKafkaListenerContainerFactory<String, BookEvent> factory) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("kafka-listener-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
+    }
 }
@@ -0,0 +1,118 @@
+package io.arconia.demo.config;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.context.Context;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Latency histogram in milliseconds for one layer (repositories, Redis commands, Kafka sends).
+ * <p>
+ * The histogram is registered once and each call site gets an {@link Operation} up front with its
+ * attribute sets already built, so recording a {@code System.nanoTime()} delta allocates nothing.
+ * Measurements are recorded against the current (or a captured) OpenTelemetry context, so with the
+ * SDK's default trace-based exemplar filter, calls made inside a sampled span link to that trace.
+ */
+public final class LatencyTimer {
+
+    public static final AttributeKey<String> OPERATION = AttributeKey.stringKey("operation");
+    private static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("outcome");
+    private static final List<Double> BUCKETS =
+        List.of(0.1, 0.25, 0.5, 1.0, 2.5, 5.0, 10.0, 25.0, 50.0, 100.0, 250.0, 500.0, 1000.0, 2500.0, 10000.0);
+
+    private final DoubleHistogram histogram;
+
+    public LatencyTimer(Meter meter, String name, String description) {
+        this.histogram = meter.histogramBuilder(name)
+            .setDescription(description)
+            .setUnit("ms")
+            .setExplicitBucketBoundariesAdvice(BUCKETS)
+            .build();
+    }
+
+    /**
+     * The shared {@code arconia.redis.command.duration} histogram. Every component timing Redis
+     * round trips builds it here, so the instrument is registered with one description.
+     */
+    public static LatencyTimer redisCommands(Meter meter) {
+        return new LatencyTimer(meter, "arconia.redis.command.duration",
+            "Duration of Redis commands and pipelines");
+    }
+
+    public Operation operation(String operation) {
+        return operation(Attributes.of(OPERATION, operation));
+    }
+
+    public Operation operation(Attributes attributes) {
+        return new Operation(attributes.toBuilder().put(OUTCOME, "success").build(),
+            attributes.toBuilder().put(OUTCOME, "error").build());
+    }
+
+    /**
+     * One timed call site with precomputed success and error attributes.
+     */
+    public final class Operation {
+
+        private final Attributes success;
+        private final Attributes error;
+
+        private Operation(Attributes success, Attributes error) {
+            this.success = success;
+            this.error = error;
+        }
+
+        public void record(long startNanos) {
+            histogram.record(millisSince(startNanos), success);
+        }
+
+        public void recordError(long startNanos) {
+            histogram.record(millisSince(startNanos), error);
+        }
+
+        /**
+         * Runs {@code call} and records its duration, as an error if it throws.
+         */
+        public <T> T time(Supplier<T> call) {
+            long start = System.nanoTime();
+            T result;
+            try {
+                result = call.get();
+            } catch (RuntimeException ex) {
+                recordError(start);
+                throw ex;
+            }
+            record(start);
+            return result;
+        }
+
+        public void time(Runnable call) {
+            long start = System.nanoTime();
+            try {
+                call.run();
+            } catch (RuntimeException ex) {
+                recordError(start);
+                throw ex;
+            }
+            record(start);
+        }
+
+        /**
+         * For completions on another thread, with the context captured when the call started.
+         */
+        public void record(long startNanos, boolean failed, Context context) {
+            histogram.record(millisSince(startNanos), failed ? error : success, context);
+        }
+
+        public void recordNanos(long durationNanos, boolean failed) {
+            histogram.record(durationNanos / 1_000_000.0, failed ? error : success);
+        }
+    }
+
+    private static double millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,32 @@
+package io.arconia.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs Flyway migrations at startup unless {@code demo.startup.migrate=false}.
+ * <p>
+ * The switch is read at runtime rather than through a bean condition, so it can be changed for
+ * an AOT-processed build. Replicas started with the {@code fast-start} profile skip the schema
+ * history queries and leave migrations to a regular run such as {@code k8s/migrations-job.yaml}.
+ */
+@Configuration
+public class MigrationConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(MigrationConfig.class);
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(@Value("${demo.startup.migrate:true}") boolean migrate) {
+        return flyway -> {
+            if (migrate) {
+                flyway.migrate();
+            } else {
+                logger.info("Skipping Flyway migrations (demo.startup.migrate=false)");
+            }
+        };
+    }
+}
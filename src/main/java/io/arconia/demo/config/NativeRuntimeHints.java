@@ -0,0 +1,38 @@
+package io.arconia.demo.config;
+
+import io.arconia.demo.entity.Book;
+import io.arconia.demo.entity.CachedSession;
+import io.arconia.demo.kafka.BookEvent;
+import io.arconia.demo.kafka.BookEventBinarySerializer;
+import io.arconia.demo.kafka.BookEventDeserializer;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection hints for a GraalVM native image, covering what Spring AOT cannot infer on its own.
+ * <ul>
+ * <li>{@link BookEvent} is read and written by Jackson inside the Kafka serializers.</li>
+ * <li>{@link Book} is cached in Redis as JSON by {@code bookRedisTemplate}.</li>
+ * <li>{@link CachedSession} is mapped to and from Redis hashes by the {@code RedisConverter}.</li>
+ * <li>The Kafka value (de)serializers can be named by class in {@code spring.kafka.*} properties,
+ * which Kafka instantiates reflectively.</li>
+ * </ul>
+ * Values cached through the cache API are stored as untyped JSON and need no hints; other objects
+ * cached in {@code redisTemplate} fall back to typed JSON and must be registered here.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(), BookEvent.class, Book.class, CachedSession.class);
+        hints.reflection()
+            .registerType(BookEventDeserializer.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+            .registerType(BookEventBinarySerializer.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+            .registerType(CachedSession.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+}
@@ -1,11 +1,17 @@
 package io.arconia.demo.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.arconia.demo.entity.Book;
+import io.opentelemetry.api.metrics.Meter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
@@ -16,17 +22,44 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 @EnableRedisRepositories(basePackages = "io.arconia.demo.repository")
 public class RedisConfig {
 
+    /**
+     * Value codec selected by {@code demo.cache.codec}: {@code compact} (see
+     * {@link CompactValueRedisSerializer}) or {@code json} for plain {@link GenericJackson2JsonRedisSerializer}.
+     */
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory, Meter meter,
+                                                       @Value("${demo.cache.codec:compact}") String codec,
+                                                       @Value("${demo.cache.compression-threshold:1024}") int compressionThreshold,
+                                                       @Value("${demo.cache.max-value-size:16777216}") int maxValueSize) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
-        
+
+        RedisSerializer<Object> valueSerializer = "json".equalsIgnoreCase(codec)
+            ? new GenericJackson2JsonRedisSerializer()
+            : new CompactValueRedisSerializer(compressionThreshold, maxValueSize, meter);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setValueSerializer(valueSerializer);
         template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setHashValueSerializer(valueSerializer);
         
         template.afterPropertiesSet();
         return template;
     }
+
+    /**
+     * Template for the book lookup cache. Uses the application ObjectMapper so
+     * {@link java.time.LocalDateTime} fields round-trip without type metadata.
+     */
+    @Bean
+    public RedisTemplate<String, Book> bookRedisTemplate(RedisConnectionFactory connectionFactory,
+                                                         ObjectMapper objectMapper) {
+        RedisTemplate<String, Book> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new Jackson2JsonRedisSerializer<>(objectMapper, Book.class));
+
+        template.afterPropertiesSet();
+        return template;
+    }
 }
@@ -0,0 +1,43 @@
+package io.arconia.demo.config;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the duration Spring Data measures for every repository method call into
+ * {@code arconia.db.repository.duration}, by repository, method and outcome. The timed operation of
+ * each method is built on its first call and looked up without allocating afterwards.
+ */
+public class RepositoryLatencyListener implements RepositoryMethodInvocationListener {
+
+    private static final AttributeKey<String> REPOSITORY = AttributeKey.stringKey("repository");
+
+    private final LatencyTimer timer;
+    private final Map<Method, LatencyTimer.Operation> operations = new ConcurrentHashMap<>();
+
+    public RepositoryLatencyListener(Meter meter) {
+        this.timer = new LatencyTimer(meter, "arconia.db.repository.duration",
+            "Duration of Spring Data repository method calls");
+    }
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        LatencyTimer.Operation operation = operations.get(method);
+        if (operation == null) {
+            operation = operations.computeIfAbsent(method, key -> timer.operation(Attributes.of(
+                REPOSITORY, invocation.getRepositoryInterface().getSimpleName(),
+                LatencyTimer.OPERATION, key.getName())));
+        }
+        RepositoryMethodInvocationResult result = invocation.getResult();
+        boolean failed = result != null && result.getState() == RepositoryMethodInvocationResult.State.ERROR;
+        operation.recordNanos(invocation.getDuration(TimeUnit.NANOSECONDS), failed);
+    }
+}
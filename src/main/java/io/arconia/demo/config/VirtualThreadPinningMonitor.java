@@ -0,0 +1,97 @@
+package io.arconia.demo.config;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.NativeDetector;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads pinned to their carrier thread, e.g. by {@code synchronized} blocks in
+ * JDBC, Redis or Kafka client code. Subscribes to the JFR {@code jdk.VirtualThreadPinned} event,
+ * logs the offending stack and counts pins by the first application or library frame.
+ * <p>
+ * Does nothing in a native image, where JFR event streaming is not available.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final AttributeKey<String> FRAME = AttributeKey.stringKey("frame");
+    private static final int LOGGED_FRAMES = 12;
+
+    private final LongCounter pinnedCounter;
+    private final Duration threshold;
+    private RecordingStream recordingStream;
+    private volatile boolean running;
+
+    public VirtualThreadPinningMonitor(Meter meter,
+                                       @Value("${demo.threads.pinning.threshold:20ms}") Duration threshold) {
+        this.threshold = threshold;
+        this.pinnedCounter = meter.counterBuilder("arconia.threads.virtual.pinned")
+            .setDescription("Virtual threads pinned to a carrier for longer than the threshold")
+            .build();
+    }
+
+    @Override
+    public void start() {
+        if (NativeDetector.inNativeImage()) {
+            logger.info("Virtual thread pinning monitor disabled: JFR event streaming is not available in a native image");
+            return;
+        }
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+        running = true;
+        logger.info("Monitoring virtual thread pinning longer than {}", threshold);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        String culprit = frames.stream()
+            .map(VirtualThreadPinningMonitor::describe)
+            .filter(frame -> !frame.startsWith("java.") && !frame.startsWith("jdk.") && !frame.startsWith("sun."))
+            .findFirst()
+            .orElse("unknown");
+        pinnedCounter.add(1, Attributes.of(FRAME, culprit));
+        logger.warn("Virtual thread pinned for {} ms at {}:\n\t{}", event.getDuration().toMillis(), culprit,
+            frames.stream().limit(LOGGED_FRAMES).map(VirtualThreadPinningMonitor::describe)
+                .collect(Collectors.joining("\n\t")));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+            + ":" + frame.getLineNumber();
+    }
+}
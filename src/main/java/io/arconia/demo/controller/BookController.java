@@ -1,10 +1,25 @@
 package io.arconia.demo.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.arconia.demo.entity.Book;
+import io.arconia.demo.repository.BookView;
+import io.arconia.demo.service.BookExportFilter;
+import io.arconia.demo.service.BookExportService;
+import io.arconia.demo.service.BookPage;
 import io.arconia.demo.service.BookService;
+import io.arconia.demo.service.BookVersion;
+import io.arconia.demo.service.BookVersionConflictException;
+import io.arconia.demo.service.BulkImportResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,11 +27,22 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * REST Controller for Book operations.
@@ -27,47 +53,149 @@ import java.util.List;
 public class BookController {
 
     private static final Logger logger = LoggerFactory.getLogger(BookController.class);
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     private final BookService bookService;
+    private final BookExportService bookExportService;
+    private final ObjectWriter bookWriter;
+    private final ObjectReader bookReader;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookExportService bookExportService,
+                          ObjectMapper objectMapper) {
         this.bookService = bookService;
+        this.bookExportService = bookExportService;
+        this.bookWriter = objectMapper.writerFor(BookView.class);
+        this.bookReader = objectMapper.readerFor(Book.class);
     }
 
+    /**
+     * Returns one page of books ordered by id. Pass the {@code X-Next-Cursor} response header
+     * back as {@code after} to fetch the following page; the header is absent on the last page.
+     */
     @GetMapping
-    public ResponseEntity<List<Book>> getAllBooks() {
-        logger.info("GET /api/books - Fetching all books");
-        List<Book> books = bookService.findAllBooks();
-        return ResponseEntity.ok(books);
+    public ResponseEntity<List<BookView>> getAllBooks(@RequestParam(defaultValue = "0") Long after,
+                                                      @RequestParam(defaultValue = "50") int size) {
+        logger.info("GET /api/books?after={}&size={} - Fetching page of books", after, size);
+        BookPage page = bookService.findBooksAfter(after, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.nextCursor()));
+        }
+        return response.body(page.books());
+    }
+
+    /**
+     * Streams every book as newline-delimited JSON, writing each row as it is read from the cursor.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllBooks() {
+        logger.info("GET /api/books/stream - Streaming all books");
+        StreamingResponseBody body = outputStream -> bookService.streamAllBooks(book -> {
+            try {
+                outputStream.write(bookWriter.writeValueAsBytes(book));
+                outputStream.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
     }
 
+    /**
+     * Exports books as CSV or NDJSON straight from PostgreSQL COPY, optionally gzip-compressed
+     * and restricted to a published year and/or updated_at range for incremental extracts.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) Integer publishedFrom,
+            @RequestParam(required = false) Integer publishedTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedTo) {
+        logger.info("GET /api/books/export?format={}&gzip={} - Exporting books", format, gzip);
+        BookExportService.Format exportFormat;
+        try {
+            exportFormat = BookExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+        BookExportFilter filter = new BookExportFilter(publishedFrom, publishedTo, updatedFrom, updatedTo);
+
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 64 * 1024);
+                bookExportService.export(exportFormat, filter, gzipStream);
+                gzipStream.finish();
+            } else {
+                bookExportService.export(exportFormat, filter, outputStream);
+            }
+        };
+
+        String extension = exportFormat == BookExportService.Format.CSV ? "csv" : "ndjson";
+        MediaType contentType = exportFormat == BookExportService.Format.CSV
+            ? new MediaType("text", "csv")
+            : MediaType.APPLICATION_NDJSON;
+        if (gzip) {
+            extension += ".gz";
+            contentType = new MediaType("application", "gzip");
+        }
+        return ResponseEntity.ok()
+            .contentType(contentType)
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("books." + extension).build().toString())
+            .body(body);
+    }
+
+    /**
+     * Answers {@code If-None-Match} and {@code If-Modified-Since} with {@code 304} from the cached
+     * version stamp, without loading the book.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable Long id) {
+    public ResponseEntity<Book> getBookById(@PathVariable Long id, WebRequest request) {
         logger.info("GET /api/books/{} - Fetching book by ID", id);
-        return bookService.findBookById(id)
-            .map(ResponseEntity::ok)
-            .orElse(ResponseEntity.notFound().build());
+        return conditionalGet(bookService.findBookVersion(id), request, () -> bookService.findBookById(id));
     }
 
     @GetMapping("/isbn/{isbn}")
-    public ResponseEntity<Book> getBookByIsbn(@PathVariable String isbn) {
+    public ResponseEntity<Book> getBookByIsbn(@PathVariable String isbn, WebRequest request) {
         logger.info("GET /api/books/isbn/{} - Fetching book by ISBN", isbn);
-        return bookService.findBookByIsbn(isbn)
-            .map(ResponseEntity::ok)
+        return conditionalGet(bookService.findBookVersionByIsbn(isbn), request, () -> bookService.findBookByIsbn(isbn));
+    }
+
+    private static ResponseEntity<Book> conditionalGet(Optional<BookVersion> version, WebRequest request,
+                                                       Supplier<Optional<Book>> loader) {
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(version.get().etag(), version.get().lastModified())) {
+            // Status and validator headers are already set on the response
+            return null;
+        }
+        return loader.get()
+            .map(book -> withVersion(ResponseEntity.ok(), book).body(book))
             .orElse(ResponseEntity.notFound().build());
     }
 
+    private static ResponseEntity.BodyBuilder withVersion(ResponseEntity.BodyBuilder response, Book book) {
+        BookVersion version = BookVersion.of(book);
+        return response.eTag(version.etag()).lastModified(version.lastModified());
+    }
+
     @GetMapping("/author/{author}")
-    public ResponseEntity<List<Book>> getBooksByAuthor(@PathVariable String author) {
+    public ResponseEntity<List<BookView>> getBooksByAuthor(@PathVariable String author) {
         logger.info("GET /api/books/author/{} - Fetching books by author", author);
-        List<Book> books = bookService.findBooksByAuthor(author);
+        List<BookView> books = bookService.findBooksByAuthor(author);
         return ResponseEntity.ok(books);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Book>> searchBooks(@RequestParam String title) {
-        logger.info("GET /api/books/search?title={} - Searching books", title);
-        List<Book> books = bookService.searchBooksByTitle(title);
+    public ResponseEntity<List<BookView>> searchBooks(@RequestParam String title,
+                                                      @RequestParam(defaultValue = "20") int limit) {
+        logger.info("GET /api/books/search?title={}&limit={} - Searching books", title, limit);
+        List<BookView> books = bookService.searchBooksByTitle(title, limit);
         return ResponseEntity.ok(books);
     }
 
@@ -78,12 +206,35 @@ public class BookController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdBook);
     }
 
+    /**
+     * Imports books from a JSON array or an NDJSON body. The body is parsed incrementally,
+     * so only one chunk of books is held in memory at a time.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkImportResult> importBooks(InputStream body) throws IOException {
+        logger.info("POST /api/books/bulk - Importing books");
+        try (MappingIterator<Book> books = bookReader.readValues(body)) {
+            BulkImportResult result = bookService.importBooks(books);
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        }
+    }
+
+    /**
+     * Updates a book. With {@code If-Match}, responds {@code 412} unless it matches the current ETag.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<Book> updateBook(@PathVariable Long id, @RequestBody Book book) {
+    public ResponseEntity<Book> updateBook(@PathVariable Long id, @RequestBody Book book,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("PUT /api/books/{} - Updating book", id);
-        return bookService.updateBook(id, book)
-            .map(ResponseEntity::ok)
-            .orElse(ResponseEntity.notFound().build());
+        try {
+            return bookService.updateBook(id, book, ifMatch)
+                .map(updated -> withVersion(ResponseEntity.ok(), updated).body(updated))
+                .orElse(ResponseEntity.notFound().build());
+        } catch (BookVersionConflictException ex) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .eTag(ex.getCurrent().etag())
+                .build();
+        }
     }
 
     @DeleteMapping("/{id}")
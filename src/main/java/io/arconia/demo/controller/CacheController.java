@@ -1,7 +1,10 @@
 package io.arconia.demo.controller;
 
 import io.arconia.demo.entity.CachedSession;
+import io.arconia.demo.service.CacheEntry;
 import io.arconia.demo.service.CacheService;
+import io.arconia.demo.service.CachedValues;
+import io.arconia.demo.service.SessionPage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -12,8 +15,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +31,8 @@ import java.util.Map;
 public class CacheController {
 
     private static final Logger logger = LoggerFactory.getLogger(CacheController.class);
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final long DEFAULT_TTL_SECONDS = 3600L;
 
     private final CacheService cacheService;
 
@@ -33,11 +40,27 @@ public class CacheController {
         this.cacheService = cacheService;
     }
 
+    /**
+     * Returns one page of sessions. Pass the {@code X-Next-Cursor} response header back as
+     * {@code cursor} to fetch the following page; the header is absent once the scan is complete.
+     * A cursor that is not an unsigned decimal number is answered with 400.
+     */
     @GetMapping("/sessions")
-    public ResponseEntity<List<CachedSession>> getAllSessions() {
-        logger.info("GET /api/cache/sessions - Fetching all sessions");
-        List<CachedSession> sessions = cacheService.getAllSessions();
-        return ResponseEntity.ok(sessions);
+    public ResponseEntity<List<CachedSession>> getSessions(@RequestParam(defaultValue = "0") String cursor,
+                                                           @RequestParam(defaultValue = "100") int count) {
+        logger.info("GET /api/cache/sessions?cursor={}&count={} - Fetching page of sessions", cursor, count);
+        SessionPage page;
+        try {
+            page = cacheService.getSessionPage(cursor, count);
+        } catch (IllegalArgumentException ex) {
+            logger.debug("Rejected sessions cursor: {}", ex.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.sessions());
     }
 
     @GetMapping("/sessions/{sessionId}")
@@ -73,15 +96,68 @@ public class CacheController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Caches one value. Body: {@code {"key":"k","value":...,"ttl":60}}; {@code ttl} defaults to 3600 seconds.
+     */
     @PostMapping("/values")
-    public ResponseEntity<Map<String, String>> cacheValue(@RequestBody Map<String, Object> request) {
+    public ResponseEntity<Map<String, String>> cacheValue(@RequestBody CacheValueRequest request) {
         logger.info("POST /api/cache/values - Caching value");
-        String key = (String) request.get("key");
-        Object value = request.get("value");
-        long ttl = request.containsKey("ttl") ? ((Number) request.get("ttl")).longValue() : 3600L;
-        
-        cacheService.cacheValue(key, value, ttl);
-        return ResponseEntity.ok(Map.of("status", "cached", "key", key));
+        CacheEntry entry;
+        try {
+            entry = toEntry(request);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+        cacheService.cacheValue(entry.key(), entry.value(), entry.ttlSeconds());
+        return ResponseEntity.ok(Map.of("status", "cached", "key", entry.key()));
+    }
+
+    /**
+     * Caches many values in one pipeline. Body: {@code {"entries":[{"key":"k","value":...,"ttl":60}]}};
+     * {@code ttl} defaults to 3600 seconds.
+     */
+    @PostMapping("/values/batch")
+    public ResponseEntity<Map<String, Object>> cacheValues(@RequestBody CacheValuesRequest request) {
+        List<CacheValueRequest> items = request.entries() != null ? request.entries() : List.of();
+        logger.info("POST /api/cache/values/batch - Caching {} values", items.size());
+        List<CacheEntry> entries;
+        try {
+            entries = items.stream().map(CacheController::toEntry).toList();
+            cacheService.cacheValues(entries);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+        return ResponseEntity.ok(Map.of("status", "cached", "count", entries.size()));
+    }
+
+    /**
+     * Reads many values with one {@code MGET}; keys without a value are listed under {@code missing}.
+     */
+    @GetMapping("/values")
+    public ResponseEntity<Map<String, Object>> getCachedValues(@RequestParam List<String> keys) {
+        logger.info("GET /api/cache/values - Getting {} cached values", keys.size());
+        CachedValues result;
+        try {
+            result = cacheService.getCachedValues(keys);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("values", result.values());
+        body.put("missing", result.missing());
+        return ResponseEntity.ok(body);
+    }
+
+    @DeleteMapping("/values")
+    public ResponseEntity<Map<String, Object>> deleteCachedValues(@RequestParam List<String> keys) {
+        logger.info("DELETE /api/cache/values - Deleting {} cached values", keys.size());
+        long deleted;
+        try {
+            deleted = cacheService.deleteCachedValues(keys);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+        return ResponseEntity.ok(Map.of("requested", keys.size(), "deleted", deleted));
     }
 
     @GetMapping("/values/{key}")
@@ -100,4 +176,23 @@ public class CacheController {
         cacheService.deleteCachedValue(key);
         return ResponseEntity.noContent().build();
     }
+
+    private static CacheEntry toEntry(CacheValueRequest request) {
+        if (request == null || request.key() == null || request.key().isBlank() || request.value() == null
+                || (request.ttl() != null && request.ttl() <= 0)) {
+            throw new IllegalArgumentException("Each entry needs a key, a value and a positive ttl");
+        }
+        return new CacheEntry(request.key(), request.value(),
+            request.ttl() != null ? request.ttl() : DEFAULT_TTL_SECONDS);
+    }
+
+    /**
+     * A value to cache; {@code ttl} is in seconds. Bodies that do not bind, such as a non-numeric
+     * {@code ttl}, are answered with 400 before reaching the handler.
+     */
+    public record CacheValueRequest(String key, Object value, Long ttl) {
+    }
+
+    public record CacheValuesRequest(List<CacheValueRequest> entries) {
+    }
 }
@@ -3,7 +3,10 @@ package io.arconia.demo.controller;
 import io.micrometer.observation.Observation;
 import io.micrometer.observation.ObservationRegistry;
 import io.micrometer.observation.annotation.Observed;
+import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleGauge;
+import io.opentelemetry.api.metrics.LongCounter;
 import io.opentelemetry.api.metrics.Meter;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
@@ -23,14 +26,29 @@ public class ObservabilityController {
 
     private static final Logger logger = LoggerFactory.getLogger(ObservabilityController.class);
 
+    private static final Attributes OTEL_METRICS_REQUEST = Attributes.of(
+        AttributeKey.stringKey("endpoint"), "otel-metrics",
+        AttributeKey.stringKey("type"), "counter");
+    private static final Attributes GAUGE = Attributes.of(AttributeKey.stringKey("type"), "gauge");
+    private static final Attributes COMBINED_REQUEST = Attributes.of(AttributeKey.stringKey("source"), "combined-endpoint");
+
     private final ObservationRegistry observationRegistry;
-    private final Meter meter;
     private final Tracer tracer;
+    private final LongCounter apiRequests;
+    private final DoubleGauge apiGauge;
+    private final LongCounter combinedRequests;
 
     public ObservabilityController(ObservationRegistry observationRegistry, Meter meter, Tracer tracer) {
         this.observationRegistry = observationRegistry;
-        this.meter = meter;
         this.tracer = tracer;
+        this.apiRequests = meter.counterBuilder("arconia.api.requests")
+            .setDescription("Number of API requests")
+            .build();
+        this.apiGauge = meter.gaugeBuilder("arconia.api.gauge")
+            .setDescription("Sample gauge metric")
+            .build();
+        this.combinedRequests = meter.counterBuilder("arconia.combined.requests")
+            .build();
     }
 
     /**
@@ -65,20 +83,8 @@ public class ObservabilityController {
     public String otelMetrics() {
         logger.info("OpenTelemetry metrics endpoint called");
         
-        meter.counterBuilder("arconia.api.requests")
-            .setDescription("Number of API requests")
-            .build()
-            .add(1L, Attributes.builder()
-                .put("endpoint", "otel-metrics")
-                .put("type", "counter")
-                .build());
-
-        meter.gaugeBuilder("arconia.api.gauge")
-            .setDescription("Sample gauge metric")
-            .build()
-            .set(Math.random() * 100, Attributes.builder()
-                .put("type", "gauge")
-                .build());
+        apiRequests.add(1L, OTEL_METRICS_REQUEST);
+        apiGauge.set(Math.random() * 100, GAUGE);
 
         return "Hello from OpenTelemetry Metrics! Counter and gauge recorded.";
     }
@@ -124,11 +130,7 @@ public class ObservabilityController {
     public String combinedObservability() {
         logger.info("Combined observability endpoint called");
         
-        meter.counterBuilder("arconia.combined.requests")
-            .build()
-            .add(1L, Attributes.builder()
-                .put("source", "combined-endpoint")
-                .build());
+        combinedRequests.add(1L, COMBINED_REQUEST);
 
         Span span = tracer.spanBuilder("arconia.combined.custom.span")
             .setAttribute("source", "combined-endpoint")
@@ -5,8 +5,10 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 /**
  * JPA Entity representing a Book stored in PostgreSQL.
@@ -15,8 +17,13 @@ import java.time.LocalDateTime;
 @Table(name = "books")
 public class Book {
 
+    /**
+     * Sequence-generated so Hibernate can batch inserts; ids are handed out
+     * by the pooled optimizer from blocks of {@code allocationSize}.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_id_seq")
+    @SequenceGenerator(name = "books_id_seq", sequenceName = "books_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -45,8 +52,8 @@ public class Book {
         this.author = author;
         this.isbn = isbn;
         this.publishedYear = publishedYear;
-        this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
+        this.createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        this.updatedAt = this.createdAt;
     }
 
     public Long getId() {
@@ -10,9 +10,16 @@ import java.io.Serializable;
  * Redis Hash entity for caching session data.
  * This demonstrates Spring Data Redis integration.
  */
-@RedisHash(value = "sessions", timeToLive = 3600)
+@RedisHash(value = CachedSession.KEYSPACE, timeToLive = CachedSession.TIME_TO_LIVE_SECONDS)
 public class CachedSession implements Serializable {
 
+    /**
+     * Keyspace and TTL as constants, so code writing session hashes directly does not have to
+     * read the annotation reflectively.
+     */
+    public static final String KEYSPACE = "sessions";
+    public static final long TIME_TO_LIVE_SECONDS = 3600;
+
     @Id
     private String id;
 
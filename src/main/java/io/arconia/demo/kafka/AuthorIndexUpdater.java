@@ -0,0 +1,168 @@
+package io.arconia.demo.kafka;
+
+import io.arconia.demo.service.AuthorIndex;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.support.TopicPartitionOffset;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies book events to the {@link AuthorIndex}, enabled with {@code demo.books.author-index.enabled=true}.
+ * <p>
+ * Every replica needs every event, so on start the listener is manually assigned all partitions
+ * of the topic with no consumer group and no offset commits; partitions added later are picked
+ * up on the next restart. The end offsets are resolved before the snapshot is loaded and
+ * consumption starts from them, so no change falls between the snapshot and the first consumed
+ * event. Events only say which books changed; their current state is re-read from the database.
+ * <p>
+ * Lag is recomputed on a timer rather than per record: a partition with records left counts from
+ * the last event applied on it, and a listener that stopped polling counts from the last record
+ * or idle poll it saw, so a stalled listener is not mistaken for a current one.
+ */
+@Component
+@ConditionalOnProperty(name = "demo.books.author-index.enabled", havingValue = "true")
+public class AuthorIndexUpdater implements MessageListener<String, BookEvent>, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthorIndexUpdater.class);
+    private static final String TOPIC = "book-events";
+    private static final String RECORDS_LAG = "records-lag";
+
+    private final AuthorIndex authorIndex;
+    private final ConsumerFactory<String, BookEvent> consumerFactory;
+    private final long pollTimeoutMs;
+    private final Map<Integer, Long> appliedAtByPartition = new ConcurrentHashMap<>();
+    private volatile KafkaMessageListenerContainer<String, BookEvent> container;
+    private volatile long positionedAt = System.currentTimeMillis();
+    private volatile long lastPolledAt = positionedAt;
+
+    public AuthorIndexUpdater(AuthorIndex authorIndex, ConsumerFactory<String, BookEvent> consumerFactory,
+                              @Value("${demo.books.author-index.poll-timeout-ms:1000}") long pollTimeoutMs) {
+        this.authorIndex = authorIndex;
+        Map<String, Object> props = new HashMap<>(consumerFactory.getConfigurationProperties());
+        props.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        this.consumerFactory =
+            new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new BookEventDeserializer());
+        this.pollTimeoutMs = pollTimeoutMs;
+    }
+
+    /**
+     * Resolves the current end of every partition, starts the snapshot load and then the listener
+     * container from those offsets.
+     */
+    @Override
+    public void start() {
+        TopicPartitionOffset[] partitions;
+        try (Consumer<String, BookEvent> consumer = consumerFactory.createConsumer()) {
+            partitions = positionAtEnd(consumer);
+        }
+        ContainerProperties containerProperties = new ContainerProperties(partitions);
+        // Offsets are never acknowledged, so nothing is committed without a group
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        containerProperties.setPollTimeout(pollTimeoutMs);
+        // Idle events mark polls that returned nothing, so an idle listener is known to be current
+        containerProperties.setIdleEventInterval(pollTimeoutMs);
+        containerProperties.setMessageListener(this);
+        KafkaMessageListenerContainer<String, BookEvent> listener =
+            new KafkaMessageListenerContainer<>(consumerFactory, containerProperties);
+        listener.setBeanName("authorIndexListenerContainer");
+        listener.setApplicationEventPublisher(event -> {
+            if (event instanceof ListenerContainerIdleEvent) {
+                lastPolledAt = System.currentTimeMillis();
+            }
+        });
+        listener.start();
+        container = listener;
+    }
+
+    @Override
+    public void stop() {
+        KafkaMessageListenerContainer<String, BookEvent> listener = container;
+        if (listener != null) {
+            listener.stop();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        KafkaMessageListenerContainer<String, BookEvent> listener = container;
+        return listener != null && listener.isRunning();
+    }
+
+    private TopicPartitionOffset[] positionAtEnd(Consumer<?, ?> consumer) {
+        List<TopicPartition> partitions = consumer.partitionsFor(TOPIC).stream()
+            .map(info -> new TopicPartition(TOPIC, info.partition()))
+            .toList();
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        positionedAt = System.currentTimeMillis();
+        lastPolledAt = positionedAt;
+        logger.info("Author index consuming {} from {}, loading snapshot", TOPIC, endOffsets);
+        authorIndex.loadSnapshotAsync();
+        return partitions.stream()
+            .map(partition -> new TopicPartitionOffset(TOPIC, partition.partition(), endOffsets.get(partition)))
+            .toArray(TopicPartitionOffset[]::new);
+    }
+
+    @Override
+    public void onMessage(ConsumerRecord<String, BookEvent> record) {
+        BookEvent event = record.value();
+        switch (event.getEventType()) {
+            case "BOOK_CREATED", "BOOK_UPDATED" -> authorIndex.refresh(List.of(event.getBookId()));
+            case "BOOK_DELETED" -> authorIndex.remove(event.getBookId());
+            case "BOOKS_IMPORTED" -> authorIndex.refresh(
+                event.getBookIds() != null ? event.getBookIds() : List.of());
+            default -> logger.debug("Author index ignoring event type: {}", event.getEventType());
+        }
+        appliedAtByPartition.put(record.partition(), record.timestamp());
+        lastPolledAt = System.currentTimeMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${demo.books.author-index.lag-interval-ms:1000}")
+    void updateLag() {
+        long now = System.currentTimeMillis();
+        long lag = 0;
+        KafkaMessageListenerContainer<String, BookEvent> listener = container;
+        if (listener != null && listener.isRunning()) {
+            for (Map<MetricName, ? extends Metric> clientMetrics : listener.metrics().values()) {
+                for (Map.Entry<MetricName, ? extends Metric> metric : clientMetrics.entrySet()) {
+                    lag = Math.max(lag, lagOf(metric.getKey(), metric.getValue(), now));
+                }
+            }
+        }
+        authorIndex.recordLag(Math.max(lag, now - lastPolledAt));
+    }
+
+    private long lagOf(MetricName name, Metric metric, long now) {
+        String partition = name.tags().get("partition");
+        if (!RECORDS_LAG.equals(name.name()) || partition == null
+                || !(metric.metricValue() instanceof Number value) || Double.isNaN(value.doubleValue())) {
+            return 0;
+        }
+        if (value.longValue() > 0) {
+            return now - appliedAtByPartition.getOrDefault(Integer.parseInt(partition), positionedAt);
+        }
+        return 0;
+    }
+}
@@ -2,6 +2,7 @@ package io.arconia.demo.kafka;
 
 import java.io.Serializable;
 import java.time.Instant;
+import java.util.List;
 
 /**
  * Event message representing a book-related event for Kafka.
@@ -13,6 +14,7 @@ public class BookEvent implements Serializable {
     private Long bookId;
     private String bookTitle;
     private String bookAuthor;
+    private List<Long> bookIds;
     private Instant timestamp;
 
     public BookEvent() {
@@ -67,6 +69,17 @@ public class BookEvent implements Serializable {
         this.bookAuthor = bookAuthor;
     }
 
+    /**
+     * Ids of all books covered by an aggregated event such as {@code BOOKS_IMPORTED}.
+     */
+    public List<Long> getBookIds() {
+        return bookIds;
+    }
+
+    public void setBookIds(List<Long> bookIds) {
+        this.bookIds = bookIds;
+    }
+
     public Instant getTimestamp() {
         return timestamp;
     }
@@ -83,6 +96,7 @@ public class BookEvent implements Serializable {
                 ", bookId=" + bookId +
                 ", bookTitle='" + bookTitle + '\'' +
                 ", bookAuthor='" + bookAuthor + '\'' +
+                ", bookIds=" + bookIds +
                 ", timestamp=" + timestamp +
                 '}';
     }
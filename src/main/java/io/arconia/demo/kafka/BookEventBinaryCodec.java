@@ -0,0 +1,288 @@
+package io.arconia.demo.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of {@link BookEvent}.
+ * <p>
+ * Layout: one format version byte, followed by {@code tag, length, value} fields where tag
+ * and length are unsigned varints. Absent fields are omitted, and readers skip tags they do
+ * not know, so fields can be added or retired without bumping the version. The version byte
+ * only changes if the framing itself changes. It can never be {@code '{'}, which lets readers
+ * tell binary payloads apart from JSON ones.
+ */
+public final class BookEventBinaryCodec {
+
+    public static final byte VERSION = 1;
+
+    static final int TAG_EVENT_ID_UUID = 1;
+    static final int TAG_EVENT_ID_TEXT = 2;
+    static final int TAG_EVENT_TYPE = 3;
+    static final int TAG_BOOK_ID = 4;
+    static final int TAG_BOOK_TITLE = 5;
+    static final int TAG_BOOK_AUTHOR = 6;
+    static final int TAG_BOOK_IDS = 7;
+    static final int TAG_TIMESTAMP = 8;
+
+    private BookEventBinaryCodec() {
+    }
+
+    public static byte[] encode(BookEvent event) {
+        Writer out = new Writer(128);
+        out.writeByte(VERSION);
+        writeEventId(out, event.getEventId());
+        writeString(out, TAG_EVENT_TYPE, event.getEventType());
+        if (event.getBookId() != null) {
+            out.writeVarint(TAG_BOOK_ID);
+            out.writeVarint(varintSize(event.getBookId()));
+            out.writeVarint(event.getBookId());
+        }
+        writeString(out, TAG_BOOK_TITLE, event.getBookTitle());
+        writeString(out, TAG_BOOK_AUTHOR, event.getBookAuthor());
+        if (event.getBookIds() != null) {
+            writeBookIds(out, event.getBookIds());
+        }
+        if (event.getTimestamp() != null) {
+            long seconds = zigZag(event.getTimestamp().getEpochSecond());
+            int nanos = event.getTimestamp().getNano();
+            out.writeVarint(TAG_TIMESTAMP);
+            out.writeVarint(varintSize(seconds) + varintSize(nanos));
+            out.writeVarint(seconds);
+            out.writeVarint(nanos);
+        }
+        return out.toByteArray();
+    }
+
+    public static BookEvent decode(byte[] data) {
+        if (data.length == 0 || data[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported BookEvent binary format version: "
+                + (data.length == 0 ? "<empty>" : data[0]));
+        }
+        Reader in = new Reader(data, 1);
+        BookEvent event = new BookEvent();
+        while (in.hasRemaining()) {
+            int tag = (int) in.readVarint();
+            long length = in.readVarint();
+            if (length < 0 || length > in.remaining()) {
+                throw new IllegalArgumentException("Truncated BookEvent field " + tag);
+            }
+            int end = in.position + (int) length;
+            switch (tag) {
+                case TAG_EVENT_ID_UUID -> {
+                    if (length != 16) {
+                        throw new IllegalArgumentException("Invalid BookEvent event id length: " + length);
+                    }
+                    event.setEventId(in.readUuid().toString());
+                }
+                case TAG_EVENT_ID_TEXT -> event.setEventId(in.readString((int) length));
+                case TAG_EVENT_TYPE -> event.setEventType(in.readString((int) length));
+                case TAG_BOOK_ID -> event.setBookId(in.readVarint());
+                case TAG_BOOK_TITLE -> event.setBookTitle(in.readString((int) length));
+                case TAG_BOOK_AUTHOR -> event.setBookAuthor(in.readString((int) length));
+                case TAG_BOOK_IDS -> event.setBookIds(readBookIds(in));
+                case TAG_TIMESTAMP -> event.setTimestamp(
+                    Instant.ofEpochSecond(unZigZag(in.readVarint()), in.readVarint()));
+                default -> {
+                    // Field written by a newer producer: skip it
+                }
+            }
+            in.position = end;
+        }
+        return event;
+    }
+
+    private static void writeEventId(Writer out, String eventId) {
+        if (eventId == null) {
+            return;
+        }
+        UUID uuid = parseUuid(eventId);
+        if (uuid != null) {
+            out.writeVarint(TAG_EVENT_ID_UUID);
+            out.writeVarint(16);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            writeString(out, TAG_EVENT_ID_TEXT, eventId);
+        }
+    }
+
+    private static UUID parseUuid(String value) {
+        if (value.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(value);
+            // Only use the 16-byte form when it decodes back to the exact same text
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static void writeString(Writer out, int tag, String value) {
+        if (value == null) {
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeVarint(tag);
+        out.writeVarint(bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    /**
+     * Writes the id count followed by zig-zag deltas, so ascending ids from a bulk import
+     * take one or two bytes each.
+     */
+    private static void writeBookIds(Writer out, List<Long> bookIds) {
+        Writer ids = new Writer(bookIds.size() * 2 + 5);
+        ids.writeVarint(bookIds.size());
+        long previous = 0;
+        for (Long id : bookIds) {
+            ids.writeVarint(zigZag(id - previous));
+            previous = id;
+        }
+        out.writeVarint(TAG_BOOK_IDS);
+        out.writeVarint(ids.position);
+        out.writeBytes(ids.buffer, ids.position);
+    }
+
+    private static List<Long> readBookIds(Reader in) {
+        long count = in.readVarint();
+        // Every id takes at least one byte, so a larger count can only come from a corrupt record
+        if (count < 0 || count > in.remaining()) {
+            throw new IllegalArgumentException("Invalid BookEvent book id count: " + count);
+        }
+        List<Long> ids = new ArrayList<>((int) count);
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += unZigZag(in.readVarint());
+            ids.add(previous);
+        }
+        return ids;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer;
+        private int position;
+
+        Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeBytes(bytes, bytes.length);
+        }
+
+        void writeBytes(byte[] bytes, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, 0, buffer, position, length);
+            position += length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        boolean hasRemaining() {
+            return position < data.length;
+        }
+
+        int remaining() {
+            return data.length - position;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= data.length) {
+                    throw new IllegalArgumentException("Truncated varint in BookEvent payload");
+                }
+                byte b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in BookEvent payload");
+        }
+
+        UUID readUuid() {
+            return new UUID(readLong(), readLong());
+        }
+
+        String readString(int length) {
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (data[position++] & 0xFF);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package io.arconia.demo.kafka;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka {@link Serializer} writing {@link BookEvent} in the {@link BookEventBinaryCodec} format.
+ * Unlike the JSON serializer it adds no type headers.
+ */
+public class BookEventBinarySerializer implements Serializer<BookEvent> {
+
+    @Override
+    public byte[] serialize(String topic, BookEvent data) {
+        return data == null ? null : BookEventBinaryCodec.encode(data);
+    }
+}
@@ -1,22 +1,128 @@
 package io.arconia.demo.kafka;
 
+import io.arconia.demo.service.BookCacheService;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.Meter;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 /**
  * Kafka consumer service for processing book events.
+ * Runs either the record listener or, with {@code demo.kafka.consumer.batch.enabled=true}, the batch listener.
+ * <p>
+ * After each event is handled, its age is recorded twice: from the event timestamp (when the change
+ * was written to the outbox) as {@code arconia.books.events.propagation}, and from the Kafka record
+ * timestamp (when it was produced) as {@code arconia.books.events.consume.latency}.
  */
 @Service
 public class BookEventConsumer {
 
     private static final Logger logger = LoggerFactory.getLogger(BookEventConsumer.class);
 
-    @KafkaListener(topics = "book-events", groupId = "arconia-consumer-group")
-    public void handleBookEvent(BookEvent event) {
-        logger.info("Received book event from Kafka: {}", event);
-        
+    private static final AttributeKey<String> EVENT_TYPE = AttributeKey.stringKey("event.type");
+    private static final Map<String, Attributes> EVENT_TYPES = Map.of(
+        "BOOK_CREATED", Attributes.of(EVENT_TYPE, "BOOK_CREATED"),
+        "BOOK_UPDATED", Attributes.of(EVENT_TYPE, "BOOK_UPDATED"),
+        "BOOK_DELETED", Attributes.of(EVENT_TYPE, "BOOK_DELETED"),
+        "BOOKS_IMPORTED", Attributes.of(EVENT_TYPE, "BOOKS_IMPORTED"));
+    private static final Attributes OTHER_TYPE = Attributes.of(EVENT_TYPE, "other");
+
+    private final BookCacheService bookCacheService;
+    private final DoubleHistogram propagationLatency;
+    private final DoubleHistogram consumeLatency;
+
+    public BookEventConsumer(BookCacheService bookCacheService, Meter meter) {
+        this.bookCacheService = bookCacheService;
+        this.propagationLatency = meter.histogramBuilder("arconia.books.events.propagation")
+            .setDescription("Time from a book change being written to the outbox until its event was handled")
+            .setUnit("ms")
+            .build();
+        this.consumeLatency = meter.histogramBuilder("arconia.books.events.consume.latency")
+            .setDescription("Time from a book event being produced until it was handled")
+            .setUnit("ms")
+            .build();
+    }
+
+    @KafkaListener(id = "bookEvents", topics = "book-events", groupId = "arconia-consumer-group",
+        autoStartup = "#{!${demo.kafka.consumer.batch.enabled:false}}")
+    public void handleBookEvent(ConsumerRecord<String, BookEvent> record) {
+        logger.info("Received book event from Kafka: {}", record.value());
+        process(record);
+    }
+
+    /**
+     * Handles a whole poll batch. Records are grouped by partition; each partition is processed
+     * in order on its own virtual thread, and the container commits offsets once the batch returns.
+     * If any partition fails, the batch is redelivered, so handlers must stay idempotent.
+     */
+    @KafkaListener(id = "bookEventsBatch", topics = "book-events", groupId = "arconia-consumer-group",
+        containerFactory = "batchKafkaListenerContainerFactory",
+        autoStartup = "${demo.kafka.consumer.batch.enabled:false}")
+    public void handleBookEvents(List<ConsumerRecord<String, BookEvent>> records) {
+        logger.info("Received batch of {} book events from Kafka", records.size());
+        Map<Integer, List<ConsumerRecord<String, BookEvent>>> eventsByPartition = new LinkedHashMap<>();
+        for (ConsumerRecord<String, BookEvent> record : records) {
+            eventsByPartition.computeIfAbsent(record.partition(), partition -> new ArrayList<>()).add(record);
+        }
+        if (eventsByPartition.size() == 1) {
+            eventsByPartition.values().forEach(this::processInOrder);
+            return;
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> partitions = new ArrayList<>(eventsByPartition.size());
+            for (List<ConsumerRecord<String, BookEvent>> events : eventsByPartition.values()) {
+                partitions.add(executor.submit(() -> processInOrder(events)));
+            }
+            awaitAll(partitions);
+        }
+    }
+
+    private void processInOrder(Collection<ConsumerRecord<String, BookEvent>> records) {
+        records.forEach(this::process);
+    }
+
+    private void awaitAll(List<Future<?>> partitions) {
+        try {
+            for (Future<?> partition : partitions) {
+                partition.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing book event batch", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Failed to process book event batch", ex.getCause());
+        }
+    }
+
+    private void process(ConsumerRecord<String, BookEvent> record) {
+        BookEvent event = record.value();
+        handle(event);
+        long now = System.currentTimeMillis();
+        Attributes attributes = EVENT_TYPES.getOrDefault(event.getEventType(), OTHER_TYPE);
+        if (event.getTimestamp() != null) {
+            propagationLatency.record(Math.max(0, now - event.getTimestamp().toEpochMilli()), attributes);
+        }
+        if (record.timestamp() >= 0) {
+            consumeLatency.record(Math.max(0, now - record.timestamp()), attributes);
+        }
+    }
+
+    private void handle(BookEvent event) {
         switch (event.getEventType()) {
             case "BOOK_CREATED":
                 handleBookCreated(event);
@@ -27,6 +133,9 @@ public class BookEventConsumer {
             case "BOOK_DELETED":
                 handleBookDeleted(event);
                 break;
+            case "BOOKS_IMPORTED":
+                handleBooksImported(event);
+                break;
             default:
                 logger.warn("Unknown event type: {}", event.getEventType());
         }
@@ -40,10 +149,17 @@ public class BookEventConsumer {
     private void handleBookUpdated(BookEvent event) {
         logger.info("Processing BOOK_UPDATED event: bookId={}, title={}", 
             event.getBookId(), event.getBookTitle());
+        bookCacheService.evict(event.getBookId());
     }
 
     private void handleBookDeleted(BookEvent event) {
         logger.info("Processing BOOK_DELETED event: bookId={}, title={}", 
             event.getBookId(), event.getBookTitle());
+        bookCacheService.evict(event.getBookId());
+    }
+
+    private void handleBooksImported(BookEvent event) {
+        logger.info("Processing BOOKS_IMPORTED event: {} books",
+            event.getBookIds() != null ? event.getBookIds().size() : 0);
     }
 }
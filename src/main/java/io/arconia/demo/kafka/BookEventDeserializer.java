@@ -0,0 +1,42 @@
+package io.arconia.demo.kafka;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+/**
+ * Kafka {@link Deserializer} reading {@link BookEvent} in either wire format.
+ * Payloads starting with {@code '{'} are JSON written by {@code JsonSerializer}. Anything
+ * else is decoded with {@link BookEventBinaryCodec}. Topics can therefore switch producers to
+ * the binary format while JSON records are still being consumed.
+ */
+public class BookEventDeserializer implements Deserializer<BookEvent> {
+
+    private final JsonDeserializer<BookEvent> jsonDeserializer = new JsonDeserializer<>(BookEvent.class, false);
+
+    @Override
+    public BookEvent deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public BookEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length > 0 && data[0] == '{') {
+            return jsonDeserializer.deserialize(topic, data);
+        }
+        try {
+            return BookEventBinaryCodec.decode(data);
+        } catch (IllegalArgumentException ex) {
+            throw new SerializationException("Cannot deserialize BookEvent from topic " + topic, ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
@@ -0,0 +1,73 @@
+package io.arconia.demo.kafka;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongGauge;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes the consumer lag of {@code arconia-consumer-group} per partition as
+ * {@code arconia.books.events.consumer.lag}, in records.
+ * <p>
+ * Read on each metric export from the {@code records-lag} metric of the running
+ * {@link BookEventConsumer} listener container, so each replica reports exactly the partitions
+ * assigned to it and no extra broker requests are made.
+ */
+@Component
+public class BookEventLagMetrics {
+
+    private static final String GROUP = "arconia-consumer-group";
+    private static final List<String> LISTENER_IDS = List.of("bookEvents", "bookEventsBatch");
+    private static final String RECORDS_LAG = "records-lag";
+    private static final AttributeKey<String> GROUP_KEY = AttributeKey.stringKey("messaging.consumer.group.name");
+    private static final AttributeKey<String> TOPIC_KEY = AttributeKey.stringKey("messaging.destination.name");
+    private static final AttributeKey<Long> PARTITION_KEY = AttributeKey.longKey("messaging.destination.partition.id");
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final ObservableLongGauge lagGauge;
+
+    public BookEventLagMetrics(KafkaListenerEndpointRegistry registry, Meter meter) {
+        this.registry = registry;
+        this.lagGauge = meter.gaugeBuilder("arconia.books.events.consumer.lag")
+            .setDescription("Records the book events consumer group is behind the end of each assigned partition")
+            .setUnit("{record}")
+            .ofLongs()
+            .buildWithCallback(this::recordLag);
+    }
+
+    private void recordLag(ObservableLongMeasurement measurement) {
+        for (String listenerId : LISTENER_IDS) {
+            MessageListenerContainer container = registry.getListenerContainer(listenerId);
+            if (container == null || !container.isRunning()) {
+                continue;
+            }
+            for (Map<MetricName, ? extends Metric> clientMetrics : container.metrics().values()) {
+                clientMetrics.forEach((name, metric) -> {
+                    String partition = name.tags().get("partition");
+                    if (RECORDS_LAG.equals(name.name()) && partition != null
+                        && metric.metricValue() instanceof Number lag && !Double.isNaN(lag.doubleValue())) {
+                        measurement.record(lag.longValue(), Attributes.of(
+                            GROUP_KEY, GROUP,
+                            TOPIC_KEY, name.tags().get("topic"),
+                            PARTITION_KEY, Long.parseLong(partition)));
+                    }
+                });
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        lagGauge.close();
+    }
+}
@@ -1,14 +1,22 @@
 package io.arconia.demo.kafka;
 
+import io.arconia.demo.config.LatencyTimer;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.context.Context;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
  * Kafka producer service for sending book events.
+ * The time from {@code send} to broker acknowledgement is recorded in {@code arconia.kafka.send.duration}.
  */
 @Service
 public class BookEventProducer {
@@ -17,48 +25,39 @@ public class BookEventProducer {
     private static final String TOPIC = "book-events";
 
     private final KafkaTemplate<String, BookEvent> kafkaTemplate;
+    private final Executor callbackExecutor;
+    private final LatencyTimer.Operation sendTimer;
 
-    public BookEventProducer(KafkaTemplate<String, BookEvent> kafkaTemplate) {
+    /**
+     * In virtual-thread mode send callbacks run on virtual threads instead of
+     * the producer's network thread, otherwise they run inline as before.
+     */
+    public BookEventProducer(KafkaTemplate<String, BookEvent> kafkaTemplate, Meter meter,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
         this.kafkaTemplate = kafkaTemplate;
+        this.callbackExecutor = virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : Runnable::run;
+        this.sendTimer = new LatencyTimer(meter, "arconia.kafka.send.duration",
+            "Time from send to broker acknowledgement of Kafka records").operation(TOPIC);
     }
 
-    public void sendBookCreatedEvent(Long bookId, String title, String author) {
-        BookEvent event = new BookEvent(
-            UUID.randomUUID().toString(),
-            "BOOK_CREATED",
-            bookId,
-            title,
-            author
-        );
-        sendEvent(event);
-    }
-
-    public void sendBookUpdatedEvent(Long bookId, String title, String author) {
-        BookEvent event = new BookEvent(
-            UUID.randomUUID().toString(),
-            "BOOK_UPDATED",
-            bookId,
-            title,
-            author
-        );
-        sendEvent(event);
-    }
-
-    public void sendBookDeletedEvent(Long bookId, String title, String author) {
-        BookEvent event = new BookEvent(
-            UUID.randomUUID().toString(),
-            "BOOK_DELETED",
-            bookId,
-            title,
-            author
-        );
-        sendEvent(event);
-    }
-
-    private void sendEvent(BookEvent event) {
+    /**
+     * Sends an event keyed by book id, so all events for one book land on the same
+     * partition in the order they were sent.
+     */
+    public CompletableFuture<SendResult<String, BookEvent>> send(BookEvent event) {
         logger.info("Sending book event to Kafka: {}", event);
-        kafkaTemplate.send(TOPIC, event.getEventId(), event)
-            .whenComplete((result, ex) -> {
+        long start = System.nanoTime();
+        Context context = Context.current();
+        CompletableFuture<SendResult<String, BookEvent>> send;
+        try {
+            send = kafkaTemplate.send(TOPIC, recordKey(event), event);
+        } catch (RuntimeException ex) {
+            sendTimer.record(start, true, context);
+            throw ex;
+        }
+        return send
+            .whenComplete((result, ex) -> sendTimer.record(start, ex != null, context))
+            .whenCompleteAsync((result, ex) -> {
                 if (ex == null) {
                     logger.info("Book event sent successfully: topic={}, partition={}, offset={}",
                         result.getRecordMetadata().topic(),
@@ -67,6 +66,10 @@ public class BookEventProducer {
                 } else {
                     logger.error("Failed to send book event: {}", event, ex);
                 }
-            });
+            }, callbackExecutor);
+    }
+
+    private static String recordKey(BookEvent event) {
+        return event.getBookId() != null ? String.valueOf(event.getBookId()) : event.getEventId();
     }
 }
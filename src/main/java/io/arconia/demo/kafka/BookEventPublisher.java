@@ -0,0 +1,365 @@
+package io.arconia.demo.kafka;
+
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongGauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded publishing pipeline in front of {@link BookEventProducer}.
+ * <p>
+ * Events wait in a FIFO queue for {@code demo.kafka.publisher.coalesce-window} before they are
+ * sent. A {@code BOOK_UPDATED} event replaces a still-queued {@code BOOK_UPDATED} for the same
+ * book if nothing else for that book was queued in between, so per-book order is kept. The
+ * returned future completes once the event, or the event that superseded it, is acknowledged.
+ * <p>
+ * At most {@code max-in-flight} sends are outstanding. When the queue is full the
+ * {@link OverflowPolicy} decides what happens. Rejected or dropped events complete
+ * exceptionally with {@link RejectedExecutionException}; their outbox rows are then relayed again.
+ * <p>
+ * When an event of a book is dropped or its send fails, the book's queued events fail with it,
+ * and new events for the book are rejected until none of its events are queued or in flight.
+ * The outbox relay then resends them from the oldest, so a later event never gets ahead of an
+ * earlier one that was lost. Exception: events of the book already handed to the producer
+ * when the failure is seen cannot be recalled. The producer is idempotent and keys by book, so
+ * Kafka keeps them in order on the partition, but one may be delivered before the retried
+ * earlier event.
+ */
+@Component
+public class BookEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookEventPublisher.class);
+    private static final String BOOK_UPDATED = "BOOK_UPDATED";
+
+    public enum OverflowPolicy {
+        /** Wait for queue space up to {@code block-timeout}, then reject. */
+        BLOCK,
+        /** Drop the oldest queued event to make room. */
+        DROP_OLDEST,
+        /** Reject the new event immediately. */
+        FAIL_FAST
+    }
+
+    private final BookEventProducer producer;
+    private final int capacity;
+    private final long coalesceWindowNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration blockTimeout;
+    private final Semaphore inFlight;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final ArrayDeque<PendingEvent> queue = new ArrayDeque<>();
+    private final Map<Long, PendingEvent> latestByBook = new HashMap<>();
+    private final Map<Long, Integer> outstandingByBook = new HashMap<>();
+    private final Set<Long> failedBooks = new HashSet<>();
+
+    private final LongCounter submitted;
+    private final LongCounter coalesced;
+    private final LongCounter rejected;
+    private final ObservableLongGauge queueDepth;
+
+    private volatile boolean running = true;
+    private Thread dispatcher;
+
+    public BookEventPublisher(BookEventProducer producer,
+                              Meter meter,
+                              @Value("${demo.kafka.publisher.capacity:1000}") int capacity,
+                              @Value("${demo.kafka.publisher.coalesce-window:50ms}") Duration coalesceWindow,
+                              @Value("${demo.kafka.publisher.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+                              @Value("${demo.kafka.publisher.block-timeout:5s}") Duration blockTimeout,
+                              @Value("${demo.kafka.publisher.max-in-flight:500}") int maxInFlight) {
+        this.producer = producer;
+        this.capacity = capacity;
+        this.coalesceWindowNanos = coalesceWindow.toNanos();
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeout = blockTimeout;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.submitted = meter.counterBuilder("arconia.books.events.submitted")
+            .setDescription("Book events submitted for publishing")
+            .build();
+        this.coalesced = meter.counterBuilder("arconia.books.events.coalesced")
+            .setDescription("Book events superseded by a later update before being sent")
+            .build();
+        this.rejected = meter.counterBuilder("arconia.books.events.rejected")
+            .setDescription("Book events rejected or dropped because the publish queue was full")
+            .build();
+        this.queueDepth = meter.gaugeBuilder("arconia.books.events.queue.depth")
+            .setDescription("Book events waiting to be sent")
+            .ofLongs()
+            .buildWithCallback(measurement -> measurement.record(depth()));
+    }
+
+    @PostConstruct
+    void start() {
+        dispatcher = Thread.ofPlatform().name("book-event-publisher").daemon().start(this::dispatchLoop);
+    }
+
+    /**
+     * Queues an event for publishing, applying the overflow policy when the queue is full.
+     */
+    public CompletableFuture<Void> publish(BookEvent event) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        submitted.add(1);
+        lock.lock();
+        try {
+            if (event.getBookId() != null && failedBooks.contains(event.getBookId())) {
+                rejected.add(1);
+                result.completeExceptionally(new RejectedExecutionException(
+                    "An earlier event for book " + event.getBookId() + " failed"));
+                return result;
+            }
+            if (coalesce(event, result)) {
+                return result;
+            }
+            if (queue.size() >= capacity && !makeRoom()) {
+                rejected.add(1);
+                result.completeExceptionally(new RejectedExecutionException(
+                    "Book event queue is full (" + capacity + "), policy " + overflowPolicy));
+                return result;
+            }
+            PendingEvent pending = new PendingEvent(event, System.nanoTime() + coalesceWindowNanos, result);
+            queue.addLast(pending);
+            if (event.getBookId() != null) {
+                latestByBook.put(event.getBookId(), pending);
+                outstandingByBook.merge(event.getBookId(), 1, Integer::sum);
+            }
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        return result;
+    }
+
+    private boolean coalesce(BookEvent event, CompletableFuture<Void> result) {
+        if (!BOOK_UPDATED.equals(event.getEventType()) || event.getBookId() == null) {
+            return false;
+        }
+        PendingEvent latest = latestByBook.get(event.getBookId());
+        if (latest == null || !BOOK_UPDATED.equals(latest.event.getEventType())) {
+            return false;
+        }
+        latest.event = event;
+        latest.futures.add(result);
+        coalesced.add(1);
+        return true;
+    }
+
+    private boolean makeRoom() {
+        switch (overflowPolicy) {
+            case FAIL_FAST -> {
+                return false;
+            }
+            case DROP_OLDEST -> {
+                PendingEvent oldest = removeFirst();
+                rejected.add(1);
+                logger.warn("Book event queue full, dropping oldest event: {}", oldest.event);
+                oldest.fail(new RejectedExecutionException("Dropped from full book event queue"));
+                completed(oldest, true);
+                return true;
+            }
+            default -> {
+                long remaining = blockTimeout.toNanos();
+                try {
+                    while (queue.size() >= capacity && remaining > 0 && running) {
+                        remaining = notFull.awaitNanos(remaining);
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return queue.size() < capacity;
+            }
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                // Take the permit first so an event stays queued (and can still be
+                // coalesced or failed with its book) until it can actually be sent.
+                inFlight.acquire();
+                PendingEvent next;
+                try {
+                    next = takeWhenDue();
+                } catch (InterruptedException ex) {
+                    inFlight.release();
+                    throw ex;
+                }
+                if (next != null) {
+                    dispatch(next);
+                } else {
+                    inFlight.release();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                logger.error("Book event dispatcher failed", ex);
+            }
+        }
+    }
+
+    private PendingEvent takeWhenDue() throws InterruptedException {
+        lock.lock();
+        try {
+            while (running) {
+                PendingEvent head = queue.peekFirst();
+                if (head == null) {
+                    notEmpty.await();
+                    continue;
+                }
+                long wait = head.dueAt - System.nanoTime();
+                if (wait <= 0) {
+                    return removeFirst();
+                }
+                notEmpty.awaitNanos(wait);
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PendingEvent removeFirst() {
+        PendingEvent head = queue.pollFirst();
+        latestByBook.remove(head.event.getBookId(), head);
+        notFull.signal();
+        return head;
+    }
+
+    /**
+     * Send latency is recorded by {@link BookEventProducer}.
+     */
+    private void dispatch(PendingEvent pending) {
+        CompletableFuture<?> send;
+        try {
+            send = producer.send(pending.event);
+        } catch (RuntimeException ex) {
+            inFlight.release();
+            pending.fail(ex);
+            completedUnderLock(pending, true);
+            return;
+        }
+        send.whenComplete((result, ex) -> {
+            inFlight.release();
+            completedUnderLock(pending, ex != null);
+            if (ex == null) {
+                pending.futures.forEach(future -> future.complete(null));
+            } else {
+                pending.fail(ex);
+            }
+        });
+    }
+
+    private void completedUnderLock(PendingEvent pending, boolean failed) {
+        lock.lock();
+        try {
+            completed(pending, failed);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Updates the book's outstanding count once an event left the pipeline. A failure also fails
+     * the book's queued events and blocks the book until nothing of it is outstanding.
+     */
+    private void completed(PendingEvent pending, boolean failed) {
+        Long bookId = pending.event.getBookId();
+        if (bookId == null) {
+            return;
+        }
+        if (failed && failedBooks.add(bookId)) {
+            latestByBook.remove(bookId);
+            List<PendingEvent> later = new ArrayList<>();
+            for (Iterator<PendingEvent> queued = queue.iterator(); queued.hasNext(); ) {
+                PendingEvent next = queued.next();
+                if (bookId.equals(next.event.getBookId())) {
+                    queued.remove();
+                    later.add(next);
+                }
+            }
+            if (!later.isEmpty()) {
+                notFull.signalAll();
+                rejected.add(later.size());
+                RejectedExecutionException cause = new RejectedExecutionException(
+                    "An earlier event for book " + bookId + " failed");
+                later.forEach(queued -> queued.fail(cause));
+                outstandingByBook.merge(bookId, -later.size(), Integer::sum);
+            }
+        }
+        if (outstandingByBook.merge(bookId, -1, Integer::sum) <= 0) {
+            outstandingByBook.remove(bookId);
+            failedBooks.remove(bookId);
+        }
+    }
+
+    private long depth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        List<PendingEvent> remaining;
+        lock.lock();
+        try {
+            remaining = new ArrayList<>(queue);
+            queue.clear();
+            latestByBook.clear();
+            outstandingByBook.clear();
+            failedBooks.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        remaining.forEach(pending -> pending.fail(new RejectedExecutionException("Book event publisher stopped")));
+        queueDepth.close();
+    }
+
+    private static final class PendingEvent {
+
+        private BookEvent event;
+        private final long dueAt;
+        private final List<CompletableFuture<Void>> futures = new ArrayList<>(1);
+
+        PendingEvent(BookEvent event, long dueAt, CompletableFuture<Void> future) {
+            this.event = event;
+            this.dueAt = dueAt;
+            this.futures.add(future);
+        }
+
+        void fail(Throwable ex) {
+            futures.forEach(future -> future.completeExceptionally(ex));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package io.arconia.demo.kafka;
+
+import io.arconia.demo.entity.BookOutboxEvent;
+import io.arconia.demo.repository.BookOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Relays book events from the transactional outbox to Kafka.
+ * <p>
+ * The outbox is split into {@code demo.outbox.shards} shards by {@code book_id}, and each shard
+ * has its own PostgreSQL advisory lock. A batch transaction first takes its shard's lock; replicas
+ * that do not get it move on to the next shard, so replicas share the work while each shard has a
+ * single relay. Every run starts at a random shard to spread replicas over them. A batch is sent
+ * in id order and deleted in the same transaction once every send is acknowledged, and the next
+ * batch of the shard is only read after that commit, so events of one book are never sent ahead
+ * of older ones. A failed send rolls the batch back and it is retried from its oldest row on the
+ * next run (at-least-once delivery). Events go through {@link BookEventPublisher}, so repeated
+ * updates of one book within a batch are sent once.
+ */
+@Component
+public class BookOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookOutboxRelay.class);
+    /** First advisory lock key of the shard locks, shared by the relays of all replicas. */
+    private static final int RELAY_LOCK_CLASS = 0x626F6F6B;
+
+    private final BookOutboxRepository outboxRepository;
+    private final BookEventPublisher bookEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${demo.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${demo.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${demo.outbox.shards:8}")
+    private int shards;
+
+    public BookOutboxRelay(BookOutboxRepository outboxRepository, BookEventPublisher bookEventPublisher,
+                           TransactionTemplate transactionTemplate) {
+        this.outboxRepository = outboxRepository;
+        this.bookEventPublisher = bookEventPublisher;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${demo.outbox.poll-interval-ms:500}")
+    public void relayPendingEvents() {
+        int first = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            relayShard((first + i) % shards);
+        }
+    }
+
+    private void relayShard(int shard) {
+        try {
+            int relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch(shard));
+            } while (relayed == batchSize);
+        } catch (RuntimeException ex) {
+            logger.error("Failed to relay book events from outbox shard {}, will retry", shard, ex);
+        }
+    }
+
+    private int relayBatch(int shard) {
+        if (!outboxRepository.tryLockShard(RELAY_LOCK_CLASS, shard)) {
+            logger.debug("Another replica is relaying outbox shard {}", shard);
+            return 0;
+        }
+        List<BookOutboxEvent> batch = outboxRepository.findNextBatch(shards, shard, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        CompletableFuture<?>[] sends = batch.stream()
+            .map(outboxEvent -> bookEventPublisher.publish(toBookEvent(outboxEvent)))
+            .toArray(CompletableFuture[]::new);
+        awaitAll(sends);
+        outboxRepository.deleteByIdIn(batch.stream().map(BookOutboxEvent::getId).toList());
+        logger.debug("Relayed {} book events from outbox", batch.size());
+        return batch.size();
+    }
+
+    private void awaitAll(CompletableFuture<?>[] sends) {
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while relaying book events", ex);
+        } catch (ExecutionException | TimeoutException ex) {
+            throw new IllegalStateException("Failed to send book events", ex);
+        }
+    }
+
+    private static BookEvent toBookEvent(BookOutboxEvent outboxEvent) {
+        BookEvent event = new BookEvent(
+            outboxEvent.getEventId(),
+            outboxEvent.getEventType(),
+            outboxEvent.getBookId(),
+            outboxEvent.getBookTitle(),
+            outboxEvent.getBookAuthor()
+        );
+        event.setBookIds(outboxEvent.getBookIds());
+        event.setTimestamp(outboxEvent.getCreatedAt().toInstant(ZoneOffset.UTC));
+        return event;
+    }
+}
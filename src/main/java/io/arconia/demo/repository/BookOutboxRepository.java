@@ -0,0 +1,42 @@
+package io.arconia.demo.repository;
+
+import io.arconia.demo.entity.BookOutboxEvent;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Spring Data JPA Repository for the book event outbox.
+ */
+@Repository
+public interface BookOutboxRepository extends ListCrudRepository<BookOutboxEvent, Long> {
+
+    /**
+     * Try to take the transaction-scoped advisory lock that makes the caller the only relay of a shard.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:lockClass, :shard)", nativeQuery = true)
+    boolean tryLockShard(@Param("lockClass") int lockClass, @Param("shard") int shard);
+
+    /**
+     * The oldest pending events of one shard. Events without a book id belong to shard 0.
+     */
+    @Query(value = """
+        SELECT * FROM book_outbox
+        WHERE mod(coalesce(book_id, 0), :shards) = :shard
+        ORDER BY id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<BookOutboxEvent> findNextBatch(@Param("shards") int shards, @Param("shard") int shard,
+                                        @Param("limit") int limit);
+
+    /**
+     * Delete relayed events in a single statement.
+     */
+    @Modifying
+    @Query("delete from BookOutboxEvent e where e.id in :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+}
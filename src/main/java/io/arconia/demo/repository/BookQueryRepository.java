@@ -0,0 +1,111 @@
+package io.arconia.demo.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * JDBC queries that map book rows straight to {@link BookView} records, skipping the
+ * persistence context, dirty-checking snapshots and entity hydration.
+ * <p>
+ * Queries join the surrounding transaction's connection, so inside a read-only transaction they
+ * run on the read replica when one is configured.
+ */
+@Repository
+public class BookQueryRepository {
+
+    private static final String COLUMNS = "id, title, author, isbn, published_year, created_at, updated_at";
+
+    private static final RowMapper<BookView> BOOK_VIEW = (rs, rowNum) -> new BookView(
+        rs.getLong(1),
+        rs.getString(2),
+        rs.getString(3),
+        rs.getString(4),
+        rs.getObject(5, Integer.class),
+        rs.getObject(6, LocalDateTime.class),
+        rs.getObject(7, LocalDateTime.class));
+
+    private final JdbcClient jdbcClient;
+
+    public BookQueryRepository(DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        // Only takes effect inside a transaction, where PostgreSQL then uses a server-side cursor
+        jdbcTemplate.setFetchSize(500);
+        this.jdbcClient = JdbcClient.create(jdbcTemplate);
+    }
+
+    /**
+     * The next page of books after the given id (keyset pagination).
+     */
+    public List<BookView> findAfter(long afterId, int limit) {
+        return jdbcClient.sql("SELECT " + COLUMNS + " FROM books WHERE id > ? ORDER BY id LIMIT ?")
+            .params(afterId, limit)
+            .query(BOOK_VIEW)
+            .list();
+    }
+
+    public List<BookView> findByAuthor(String author) {
+        return jdbcClient.sql("SELECT " + COLUMNS + " FROM books WHERE author = ? ORDER BY id")
+            .param(author)
+            .query(BOOK_VIEW)
+            .list();
+    }
+
+    public List<BookView> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcClient.sql("SELECT " + COLUMNS + " FROM books WHERE id = ANY(?)")
+            .param(ids.toArray(Long[]::new))
+            .query(BOOK_VIEW)
+            .list();
+    }
+
+    /**
+     * Search books by title, best matches first.
+     * Combines full-text, substring and fuzzy matching so every predicate is served
+     * by the title indexes created in V2__books_title_search.sql. {@code %} and {@code _} in the
+     * query match literally in the substring predicate.
+     */
+    public List<BookView> searchByTitle(String query, int limit) {
+        return jdbcClient.sql("""
+                SELECT b.id, b.title, b.author, b.isbn, b.published_year, b.created_at, b.updated_at FROM books b
+                WHERE to_tsvector('english', b.title) @@ websearch_to_tsquery('english', :query)
+                   OR b.title ILIKE '%' || :pattern || '%' ESCAPE '\\'
+                   OR :query <% b.title
+                ORDER BY ts_rank(to_tsvector('english', b.title), websearch_to_tsquery('english', :query)) DESC,
+                         word_similarity(:query, b.title) DESC,
+                         b.id
+                LIMIT :limit
+                """)
+            .param("query", query)
+            .param("pattern", escapeLike(query))
+            .param("limit", limit)
+            .query(BOOK_VIEW)
+            .list();
+    }
+
+    /**
+     * Escapes {@code LIKE} wildcards so user input matches literally.
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Stream all books ordered by id over a server-side JDBC cursor.
+     * Must be consumed inside a transaction, otherwise PostgreSQL ignores the fetch size.
+     */
+    public Stream<BookView> streamAll() {
+        return jdbcClient.sql("SELECT " + COLUMNS + " FROM books ORDER BY id")
+            .query(BOOK_VIEW)
+            .stream();
+    }
+}
@@ -1,9 +1,15 @@
 package io.arconia.demo.repository;
 
 import io.arconia.demo.entity.Book;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,13 +29,30 @@ public interface BookRepository extends ListCrudRepository<Book, Long> {
      */
     Optional<Book> findByIsbn(String isbn);
 
+    /**
+     * Version lookup for conditional requests; reads only {@code updated_at}.
+     */
+    @Query("select b.updatedAt from Book b where b.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
+    @Query("select b.id from Book b where b.isbn = :isbn")
+    Optional<Long> findIdByIsbn(@Param("isbn") String isbn);
+
+    /**
+     * Load a book with {@code SELECT ... FOR UPDATE}, for conditional updates.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Book b where b.id = :id")
+    Optional<Book> findByIdForUpdate(@Param("id") Long id);
+
     /**
      * Find books published after a certain year.
      */
     List<Book> findByPublishedYearGreaterThan(Integer year);
 
     /**
-     * Find books by title containing a keyword (case-insensitive).
+     * Find the next page of books after the given id (keyset pagination).
+     * List endpoints read {@link BookView} projections from {@link BookQueryRepository} instead.
      */
-    List<Book> findByTitleContainingIgnoreCase(String keyword);
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -0,0 +1,10 @@
+package io.arconia.demo.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a book row. Serializes to the same JSON as the {@code Book} entity.
+ */
+public record BookView(Long id, String title, String author, String isbn, Integer publishedYear,
+                       LocalDateTime createdAt, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,217 @@
+package io.arconia.demo.service;
+
+import io.arconia.demo.repository.BookQueryRepository;
+import io.arconia.demo.repository.BookView;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongGauge;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory author to books read model, kept current from the {@code book-events} topic.
+ * <p>
+ * Each author maps to an immutable list that is replaced on change, so reads never lock. Writes
+ * from the event listener and the startup snapshot are serialized and only replace a book with
+ * one whose {@code updatedAt} is not older. Books deleted while the snapshot is loading are
+ * tombstoned so the snapshot cannot bring them back. Reads fall back to the database until the
+ * snapshot is loaded and whenever the projection lags more than
+ * {@code demo.books.author-index.max-lag} behind the topic.
+ * <p>
+ * The snapshot and refreshes read from the primary: a lagging replica could miss changes whose
+ * events were consumed before the replica caught up.
+ */
+@Service
+@ConditionalOnProperty(name = "demo.books.author-index.enabled", havingValue = "true")
+public class AuthorIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthorIndex.class);
+    private static final Comparator<BookView> BY_ID = Comparator.comparing(BookView::id);
+
+    private final BookQueryRepository bookQueryRepository;
+    private final TransactionTemplate snapshotTransaction;
+    private final long maxLagMillis;
+
+    private final Map<String, List<BookView>> booksByAuthor = new ConcurrentHashMap<>();
+    private final Map<Long, BookView> booksById = new ConcurrentHashMap<>();
+    private final Set<Long> tombstones = new HashSet<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicBoolean snapshotStarted = new AtomicBoolean();
+    private volatile boolean ready;
+    private volatile long lagMillis;
+
+    private final LongCounter fallbacks;
+    private final ObservableLongGauge lagGauge;
+
+    public AuthorIndex(BookQueryRepository bookQueryRepository,
+                       PlatformTransactionManager transactionManager,
+                       Meter meter,
+                       @Value("${demo.books.author-index.max-lag:5s}") Duration maxLag) {
+        this.bookQueryRepository = bookQueryRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.maxLagMillis = maxLag.toMillis();
+        this.fallbacks = meter.counterBuilder("arconia.books.author_index.fallbacks")
+            .setDescription("Author lookups served from the database because the index was not current")
+            .build();
+        this.lagGauge = meter.gaugeBuilder("arconia.books.author_index.lag")
+            .setDescription("Age of the last applied book event while the index is behind the topic, or time since the last poll")
+            .setUnit("ms")
+            .ofLongs()
+            .buildWithCallback(measurement -> measurement.record(lagMillis));
+    }
+
+    /**
+     * Books by the author, or empty when the caller should query the database instead.
+     */
+    public Optional<List<BookView>> findByAuthor(String author) {
+        if (!ready || lagMillis > maxLagMillis) {
+            fallbacks.add(1);
+            return Optional.empty();
+        }
+        return Optional.of(booksByAuthor.getOrDefault(author, List.of()));
+    }
+
+    /**
+     * Loads the snapshot on a background thread, once. Call only after the event listener's
+     * positions are fixed, so every change committed after the snapshot query starts is consumed.
+     */
+    public void loadSnapshotAsync() {
+        if (snapshotStarted.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("author-index-snapshot").start(this::loadSnapshot);
+        }
+    }
+
+    /**
+     * Streams all books, then merges them with any events applied meanwhile and builds the
+     * author lists in one pass.
+     */
+    private void loadSnapshot() {
+        long start = System.currentTimeMillis();
+        try {
+            List<BookView> snapshot = new ArrayList<>();
+            // Not read-only, so the cursor runs on the primary
+            snapshotTransaction.executeWithoutResult(status -> {
+                try (Stream<BookView> books = bookQueryRepository.streamAll()) {
+                    books.forEach(snapshot::add);
+                }
+            });
+            writeLock.lock();
+            try {
+                for (BookView book : snapshot) {
+                    BookView current = booksById.get(book.id());
+                    if (!tombstones.contains(book.id()) && (current == null || !isNewer(current, book))) {
+                        booksById.put(book.id(), book);
+                    }
+                }
+                Map<String, List<BookView>> grouped = booksById.values().stream()
+                    .sorted(BY_ID)
+                    .collect(Collectors.groupingBy(BookView::author, Collectors.toUnmodifiableList()));
+                booksByAuthor.clear();
+                booksByAuthor.putAll(grouped);
+                tombstones.clear();
+                ready = true;
+            } finally {
+                writeLock.unlock();
+            }
+            logger.info("Author index loaded {} books in {} ms", snapshot.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException ex) {
+            logger.error("Failed to load author index snapshot, author lookups stay on the database", ex);
+        }
+    }
+
+    /**
+     * Re-reads the given books from the database and applies their current state.
+     */
+    public void refresh(Collection<Long> ids) {
+        Set<Long> missing = new HashSet<>(ids);
+        for (BookView book : bookQueryRepository.findAllById(ids)) {
+            missing.remove(book.id());
+            put(book);
+        }
+        missing.forEach(this::remove);
+    }
+
+    public void remove(Long id) {
+        writeLock.lock();
+        try {
+            if (!ready) {
+                tombstones.add(id);
+            }
+            BookView current = booksById.remove(id);
+            if (current != null) {
+                removeFromAuthor(current);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void recordLag(long lagMillis) {
+        this.lagMillis = lagMillis;
+    }
+
+    private void put(BookView book) {
+        writeLock.lock();
+        try {
+            if (tombstones.contains(book.id())) {
+                return;
+            }
+            BookView current = booksById.get(book.id());
+            if (current != null && isNewer(current, book)) {
+                return;
+            }
+            booksById.put(book.id(), book);
+            if (current != null) {
+                removeFromAuthor(current);
+            }
+            List<BookView> books = new ArrayList<>(booksByAuthor.getOrDefault(book.author(), List.of()));
+            books.add(book);
+            books.sort(BY_ID);
+            booksByAuthor.put(book.author(), List.copyOf(books));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void removeFromAuthor(BookView book) {
+        List<BookView> books = booksByAuthor.getOrDefault(book.author(), List.of()).stream()
+            .filter(existing -> !existing.id().equals(book.id()))
+            .toList();
+        if (books.isEmpty()) {
+            booksByAuthor.remove(book.author());
+        } else {
+            booksByAuthor.put(book.author(), books);
+        }
+    }
+
+    private static boolean isNewer(BookView current, BookView candidate) {
+        return current.updatedAt() != null && candidate.updatedAt() != null
+            && current.updatedAt().isAfter(candidate.updatedAt());
+    }
+
+    @PreDestroy
+    void close() {
+        lagGauge.close();
+    }
+}
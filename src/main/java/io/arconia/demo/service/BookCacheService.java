@@ -0,0 +1,291 @@
+package io.arconia.demo.service;
+
+import io.arconia.demo.entity.Book;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read-through Redis cache for single-book lookups by id and ISBN.
+ * Entries are evicted after local writes commit and again when book events are consumed.
+ * <p>
+ * Every eviction bumps a per-book generation counter, and a miss only stores what it loaded if the
+ * generation is unchanged since before the load. A miss that read the row before a concurrent
+ * update committed therefore cannot put the old row back after that update's eviction.
+ */
+@Service
+public class BookCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookCacheService.class);
+    private static final String ID_PREFIX = "book:id:";
+    private static final String ISBN_PREFIX = "book:isbn:";
+    private static final String VERSION_PREFIX = "book:version:";
+    private static final String GENERATION_PREFIX = "book:generation:";
+    private static final String NO_GENERATION = "0";
+
+    /** KEYS: generation, then the keys to set; ARGV: expected generation, ttl millis, then the values. */
+    private static final byte[] PUT_IF_CURRENT = bytes("""
+        if (redis.call('GET', KEYS[1]) or '0') ~= ARGV[1] then
+          return 0
+        end
+        for i = 2, #KEYS do
+          redis.call('SET', KEYS[i], ARGV[i + 1], 'PX', ARGV[2])
+        end
+        return 1
+        """);
+    /** KEYS: generation, book, version; ARGV: generation ttl millis. */
+    private static final byte[] EVICT = bytes("""
+        redis.call('INCR', KEYS[1])
+        redis.call('PEXPIRE', KEYS[1], ARGV[1])
+        return redis.call('DEL', KEYS[2], KEYS[3])
+        """);
+
+    private static final AttributeKey<String> LOOKUP = AttributeKey.stringKey("lookup");
+    private static final AttributeKey<String> RESULT = AttributeKey.stringKey("result");
+    private static final Attributes ID_HIT = Attributes.of(LOOKUP, "id", RESULT, "hit");
+    private static final Attributes ID_MISS = Attributes.of(LOOKUP, "id", RESULT, "miss");
+    private static final Attributes ISBN_HIT = Attributes.of(LOOKUP, "isbn", RESULT, "hit");
+    private static final Attributes ISBN_MISS = Attributes.of(LOOKUP, "isbn", RESULT, "miss");
+    private static final Attributes VERSION_HIT = Attributes.of(LOOKUP, "version", RESULT, "hit");
+    private static final Attributes VERSION_MISS = Attributes.of(LOOKUP, "version", RESULT, "miss");
+
+    private final RedisTemplate<String, Book> bookRedisTemplate;
+    private final RedisSerializer<Book> bookSerializer;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final LongCounter requests;
+    private final LongCounter evictions;
+    private final LongCounter staleFills;
+    private final Duration ttl;
+
+    @SuppressWarnings("unchecked")
+    public BookCacheService(RedisTemplate<String, Book> bookRedisTemplate,
+                            StringRedisTemplate stringRedisTemplate,
+                            Meter meter,
+                            @Value("${demo.books.cache.ttl:10m}") Duration ttl) {
+        this.bookRedisTemplate = bookRedisTemplate;
+        this.bookSerializer = (RedisSerializer<Book>) bookRedisTemplate.getValueSerializer();
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.ttl = ttl;
+        this.requests = meter.counterBuilder("arconia.books.cache.requests")
+            .setDescription("Book cache lookups by result")
+            .build();
+        this.evictions = meter.counterBuilder("arconia.books.cache.evictions")
+            .setDescription("Book cache entries evicted after a change")
+            .build();
+        this.staleFills = meter.counterBuilder("arconia.books.cache.stale_fills")
+            .setDescription("Cache misses not stored because the book was evicted while they loaded")
+            .build();
+    }
+
+    public Optional<Book> findById(Long id, Function<Long, Optional<Book>> loader) {
+        Book cached = bookRedisTemplate.opsForValue().get(ID_PREFIX + id);
+        if (cached != null) {
+            requests.add(1, ID_HIT);
+            return Optional.of(cached);
+        }
+        requests.add(1, ID_MISS);
+        String generation = generationOf(id);
+        Optional<Book> book = loader.apply(id);
+        book.ifPresent(value -> put(value, generation));
+        return book;
+    }
+
+    /**
+     * ISBN lookups resolve through an ISBN to id mapping. The mapping is verified against the
+     * cached book, so a mapping left behind by an ISBN change falls through to the loader. On a miss
+     * without a mapping the id is resolved with {@code idLoader} first, so the book's generation is
+     * read before it is loaded; a loaded book with another id is returned but not cached.
+     */
+    public Optional<Book> findByIsbn(String isbn, Function<String, Optional<Long>> idLoader,
+                                     Function<String, Optional<Book>> loader) {
+        String mapped = stringRedisTemplate.opsForValue().get(ISBN_PREFIX + isbn);
+        if (mapped != null) {
+            Book cached = bookRedisTemplate.opsForValue().get(ID_PREFIX + mapped);
+            if (cached != null && isbn.equals(cached.getIsbn())) {
+                requests.add(1, ISBN_HIT);
+                return Optional.of(cached);
+            }
+        }
+        requests.add(1, ISBN_MISS);
+        Optional<Long> id = mapped != null ? Optional.of(Long.valueOf(mapped)) : idLoader.apply(isbn);
+        String generation = id.map(this::generationOf).orElse(null);
+        Optional<Book> book = loader.apply(isbn);
+        book.filter(value -> id.isPresent() && id.get().equals(value.getId()))
+            .ifPresent(value -> put(value, generation));
+        return book;
+    }
+
+    /**
+     * Version stamp lookup that never loads the book itself; backs conditional GETs.
+     */
+    public Optional<BookVersion> findVersion(Long id, Function<Long, Optional<LocalDateTime>> loader) {
+        String cached = stringRedisTemplate.opsForValue().get(VERSION_PREFIX + id);
+        if (cached != null) {
+            requests.add(1, VERSION_HIT);
+            return Optional.of(BookVersion.ofMicros(id, microsOf(cached)));
+        }
+        requests.add(1, VERSION_MISS);
+        String generation = generationOf(id);
+        Optional<BookVersion> version = loader.apply(id).map(updatedAt -> new BookVersion(id, updatedAt));
+        version.ifPresent(value ->
+            putIfCurrent(id, generation, Map.of(VERSION_PREFIX + id, versionValue(value, null))));
+        return version;
+    }
+
+    /**
+     * Resolves the id through the cached ISBN mapping, then looks up the version stamp. Like
+     * {@link #findByIsbn}, the mapping is only trusted when the cached version was stored for the
+     * same ISBN; otherwise the id is resolved from the database again, and once more after the
+     * version is loaded, so an ISBN that moved meanwhile is not cached.
+     */
+    public Optional<BookVersion> findVersionByIsbn(String isbn, Function<String, Optional<Long>> idLoader,
+                                                   Function<Long, Optional<LocalDateTime>> loader) {
+        String id = stringRedisTemplate.opsForValue().get(ISBN_PREFIX + isbn);
+        if (id != null) {
+            String cached = stringRedisTemplate.opsForValue().get(VERSION_PREFIX + id);
+            if (cached != null && isbn.equals(isbnOf(cached))) {
+                requests.add(1, VERSION_HIT);
+                return Optional.of(BookVersion.ofMicros(Long.valueOf(id), microsOf(cached)));
+            }
+        }
+        requests.add(1, VERSION_MISS);
+        Optional<Long> bookId = idLoader.apply(isbn);
+        if (bookId.isEmpty()) {
+            return Optional.empty();
+        }
+        String generation = generationOf(bookId.get());
+        Optional<BookVersion> version = loader.apply(bookId.get())
+            .map(updatedAt -> new BookVersion(bookId.get(), updatedAt));
+        if (version.isPresent() && bookId.equals(idLoader.apply(isbn))) {
+            putIfCurrent(bookId.get(), generation, Map.of(
+                VERSION_PREFIX + bookId.get(), versionValue(version.get(), isbn),
+                ISBN_PREFIX + isbn, String.valueOf(bookId.get())));
+        }
+        return version;
+    }
+
+    private void put(Book book, String generation) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put(ID_PREFIX + book.getId(), book);
+        values.put(VERSION_PREFIX + book.getId(), versionValue(BookVersion.of(book), book.getIsbn()));
+        if (book.getIsbn() != null) {
+            values.put(ISBN_PREFIX + book.getIsbn(), String.valueOf(book.getId()));
+        }
+        putIfCurrent(book.getId(), generation, values);
+    }
+
+    /**
+     * Stores the values, strings as UTF-8 and books as JSON, only if the book's generation is
+     * still {@code generation}.
+     */
+    private void putIfCurrent(Long bookId, String generation, Map<String, ?> values) {
+        byte[][] keysAndArgs = new byte[values.size() * 2 + 3][];
+        int keys = values.size() + 1;
+        keysAndArgs[0] = bytes(GENERATION_PREFIX + bookId);
+        keysAndArgs[keys] = bytes(generation);
+        keysAndArgs[keys + 1] = bytes(String.valueOf(ttl.toMillis()));
+        int i = 1;
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            keysAndArgs[i] = bytes(entry.getKey());
+            keysAndArgs[keys + 1 + i] = entry.getValue() instanceof Book book
+                ? bookSerializer.serialize(book)
+                : bytes((String) entry.getValue());
+            i++;
+        }
+        Long stored = stringRedisTemplate.execute((RedisCallback<Long>) connection ->
+            connection.scriptingCommands().eval(PUT_IF_CURRENT, ReturnType.INTEGER, keys, keysAndArgs));
+        if (stored == null || stored == 0) {
+            logger.debug("Not caching book {}: evicted while it was loading", bookId);
+            staleFills.add(1);
+        }
+    }
+
+    private String generationOf(Long bookId) {
+        String generation = stringRedisTemplate.opsForValue().get(GENERATION_PREFIX + bookId);
+        return generation != null ? generation : NO_GENERATION;
+    }
+
+    /**
+     * {@code <micros>} or, when the ISBN is known, {@code <micros>:<isbn>}.
+     */
+    private static String versionValue(BookVersion version, String isbn) {
+        return isbn == null ? String.valueOf(version.micros()) : version.micros() + ":" + isbn;
+    }
+
+    private static long microsOf(String cachedVersion) {
+        int separator = cachedVersion.indexOf(':');
+        return Long.parseLong(separator < 0 ? cachedVersion : cachedVersion.substring(0, separator));
+    }
+
+    private static String isbnOf(String cachedVersion) {
+        int separator = cachedVersion.indexOf(':');
+        return separator < 0 ? null : cachedVersion.substring(separator + 1);
+    }
+
+    /**
+     * Drops the book and its version stamp and bumps its generation, so misses already loading
+     * the book do not store it.
+     */
+    public void evict(Long bookId) {
+        Long deleted = stringRedisTemplate.execute((RedisCallback<Long>) connection ->
+            connection.scriptingCommands().eval(EVICT, ReturnType.INTEGER, 3,
+                bytes(GENERATION_PREFIX + bookId), bytes(ID_PREFIX + bookId), bytes(VERSION_PREFIX + bookId),
+                bytes(String.valueOf(ttl.toMillis()))));
+        if (deleted != null && deleted > 0) {
+            logger.debug("Evicted cached book: {}", bookId);
+            evictions.add(1);
+        }
+    }
+
+    /**
+     * Drops an ISBN mapping after commit, once the book no longer has that ISBN.
+     */
+    public void evictIsbnAfterCommit(String isbn) {
+        afterCommit(() -> stringRedisTemplate.delete(ISBN_PREFIX + isbn));
+    }
+
+    /**
+     * Evicts once the surrounding transaction commits, so readers cannot repopulate the
+     * cache with the pre-commit row. Evicts immediately when no transaction is active.
+     */
+    public void evictAfterCommit(Long bookId) {
+        afterCommit(() -> evict(bookId));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,61 @@
+package io.arconia.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional range filter for book exports: published year (inclusive on both ends)
+ * and {@code updated_at} (inclusive lower bound, exclusive upper bound) for incremental extracts.
+ */
+public record BookExportFilter(Integer publishedFrom, Integer publishedTo,
+                               LocalDateTime updatedFrom, LocalDateTime updatedTo) {
+
+    static final String PUBLISHED_FROM = "book_export.published_from";
+    static final String PUBLISHED_TO = "book_export.published_to";
+    static final String UPDATED_FROM = "book_export.updated_from";
+    static final String UPDATED_TO = "book_export.updated_to";
+
+    /**
+     * COPY does not accept bind parameters, so the conditions read the bounds from transaction-local
+     * settings, which {@link #settings()} supplies as bind parameters of {@code set_config}.
+     */
+    String whereClause() {
+        List<String> conditions = new ArrayList<>();
+        if (publishedFrom != null) {
+            conditions.add("published_year >= current_setting('" + PUBLISHED_FROM + "')::integer");
+        }
+        if (publishedTo != null) {
+            conditions.add("published_year <= current_setting('" + PUBLISHED_TO + "')::integer");
+        }
+        if (updatedFrom != null) {
+            conditions.add("updated_at >= current_setting('" + UPDATED_FROM + "')::timestamp");
+        }
+        if (updatedTo != null) {
+            conditions.add("updated_at < current_setting('" + UPDATED_TO + "')::timestamp");
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    /**
+     * The settings referenced by {@link #whereClause()}, by name.
+     */
+    Map<String, String> settings() {
+        Map<String, String> settings = new LinkedHashMap<>();
+        if (publishedFrom != null) {
+            settings.put(PUBLISHED_FROM, publishedFrom.toString());
+        }
+        if (publishedTo != null) {
+            settings.put(PUBLISHED_TO, publishedTo.toString());
+        }
+        if (updatedFrom != null) {
+            settings.put(UPDATED_FROM, updatedFrom.toString());
+        }
+        if (updatedTo != null) {
+            settings.put(UPDATED_TO, updatedTo.toString());
+        }
+        return settings;
+    }
+}
@@ -0,0 +1,85 @@
+package io.arconia.demo.service;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Service class for exporting the books table with PostgreSQL {@code COPY ... TO STDOUT}.
+ * Rows are streamed from the server straight into the output stream, bypassing JPA and Jackson,
+ * so memory use does not depend on the number of rows exported.
+ */
+@Service
+public class BookExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookExportService.class);
+
+    private static final String CSV_COLUMNS =
+        "id, title, author, isbn, published_year, created_at, updated_at";
+    private static final String JSON_COLUMNS =
+        "id, title, author, isbn, published_year AS \"publishedYear\", "
+            + "created_at AS \"createdAt\", updated_at AS \"updatedAt\"";
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private final DataSource dataSource;
+
+    public BookExportService(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public long export(Format format, BookExportFilter filter, OutputStream outputStream) throws IOException {
+        String sql = switch (format) {
+            case CSV -> "COPY (SELECT " + CSV_COLUMNS + " FROM books" + filter.whereClause() + " ORDER BY id)"
+                + " TO STDOUT WITH (FORMAT csv, HEADER)";
+            // One row_to_json document per line. CSV mode with quote and delimiter bytes that never
+            // occur in JSON text writes each document verbatim; text mode would escape backslashes.
+            case NDJSON -> "COPY (SELECT row_to_json(b) FROM (SELECT " + JSON_COLUMNS + " FROM books"
+                + filter.whereClause() + " ORDER BY id) b)"
+                + " TO STDOUT WITH (FORMAT csv, QUOTE E'\\x01', DELIMITER E'\\x02')";
+        };
+        logger.debug("Exporting books: {}", sql);
+        try (Connection connection = dataSource.getConnection()) {
+            // Routes the export to the read replica when one is configured
+            connection.setReadOnly(true);
+            // The filter settings are transaction-local, so they end with the export
+            connection.setAutoCommit(false);
+            try {
+                applySettings(connection, filter);
+                CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+                long rows = copyManager.copyOut(sql, outputStream);
+                connection.commit();
+                logger.info("Exported {} books as {}", rows, format);
+                return rows;
+            } catch (SQLException | IOException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            }
+        } catch (SQLException ex) {
+            throw new DataRetrievalFailureException("Failed to export books", ex);
+        }
+    }
+
+    private static void applySettings(Connection connection, BookExportFilter filter) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT set_config(?, ?, true)")) {
+            for (Map.Entry<String, String> setting : filter.settings().entrySet()) {
+                statement.setString(1, setting.getKey());
+                statement.setString(2, setting.getValue());
+                statement.executeQuery().close();
+            }
+        }
+    }
+}
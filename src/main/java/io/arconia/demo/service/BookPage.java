@@ -0,0 +1,11 @@
+package io.arconia.demo.service;
+
+import io.arconia.demo.repository.BookView;
+
+import java.util.List;
+
+/**
+ * A keyset page of books. {@code nextCursor} is the id to resume after, or {@code null} on the last page.
+ */
+public record BookPage(List<BookView> books, Long nextCursor) {
+}
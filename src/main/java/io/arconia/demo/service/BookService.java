@@ -1,19 +1,37 @@
 package io.arconia.demo.service;
 
 import io.arconia.demo.entity.Book;
-import io.arconia.demo.kafka.BookEventProducer;
+import io.arconia.demo.entity.BookOutboxEvent;
+import io.arconia.demo.repository.BookOutboxRepository;
+import io.arconia.demo.repository.BookQueryRepository;
 import io.arconia.demo.repository.BookRepository;
+import io.arconia.demo.repository.BookView;
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service class for Book operations with PostgreSQL and Kafka integration.
+ * Book events are written to the transactional outbox and relayed to Kafka by {@code BookOutboxRelay}.
+ * <p>
+ * List and search reads return {@link BookView} projections from read-only transactions, which go to
+ * the read replica when one is configured. Lookups that fill the Redis cache stay on the primary, so a
+ * lagging replica cannot put a just-evicted version back into the cache.
  */
 @Service
 @Transactional
@@ -22,70 +40,206 @@ public class BookService {
     private static final Logger logger = LoggerFactory.getLogger(BookService.class);
 
     private final BookRepository bookRepository;
-    private final BookEventProducer bookEventProducer;
+    private final BookQueryRepository bookQueryRepository;
+    private final BookOutboxRepository bookOutboxRepository;
+    private final BookCacheService bookCacheService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AuthorIndex authorIndex;
+    private final EntityManager entityManager;
 
-    public BookService(BookRepository bookRepository, BookEventProducer bookEventProducer) {
+    @Value("${demo.books.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${demo.books.search.max-results:100}")
+    private int maxSearchResults;
+
+    @Value("${demo.books.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
+    public BookService(BookRepository bookRepository, BookQueryRepository bookQueryRepository,
+                       BookOutboxRepository bookOutboxRepository, BookCacheService bookCacheService,
+                       TransactionTemplate transactionTemplate, ObjectProvider<AuthorIndex> authorIndex,
+                       EntityManager entityManager) {
         this.bookRepository = bookRepository;
-        this.bookEventProducer = bookEventProducer;
+        this.bookQueryRepository = bookQueryRepository;
+        this.bookOutboxRepository = bookOutboxRepository;
+        this.bookCacheService = bookCacheService;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.authorIndex = authorIndex.getIfAvailable();
+        this.entityManager = entityManager;
     }
 
-    public List<Book> findAllBooks() {
-        logger.debug("Finding all books");
-        return bookRepository.findAll();
+    /**
+     * Returns up to {@code size} books with an id greater than {@code afterId}, ordered by id.
+     * The page size is capped at {@code demo.books.page.max-size}.
+     */
+    @Transactional(readOnly = true)
+    public BookPage findBooksAfter(Long afterId, int size) {
+        int pageSize = Math.min(Math.max(size, 1), maxPageSize);
+        logger.debug("Finding books after id: {} (page size: {})", afterId, pageSize);
+        List<BookView> books = bookQueryRepository.findAfter(afterId, pageSize);
+        Long nextCursor = books.size() == pageSize ? books.getLast().id() : null;
+        return new BookPage(books, nextCursor);
+    }
+
+    /**
+     * Walks the whole books table over a JDBC cursor, handing each row to the consumer.
+     * Rows are mapped to projections, so nothing accumulates in the persistence context.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllBooks(Consumer<BookView> consumer) {
+        logger.debug("Streaming all books");
+        try (Stream<BookView> books = bookQueryRepository.streamAll()) {
+            books.forEach(consumer);
+        }
     }
 
     public Optional<Book> findBookById(Long id) {
         logger.debug("Finding book by id: {}", id);
-        return bookRepository.findById(id);
+        return bookCacheService.findById(id, bookRepository::findById);
     }
 
     public Optional<Book> findBookByIsbn(String isbn) {
         logger.debug("Finding book by ISBN: {}", isbn);
-        return bookRepository.findByIsbn(isbn);
+        return bookCacheService.findByIsbn(isbn, bookRepository::findIdByIsbn, bookRepository::findByIsbn);
+    }
+
+    /**
+     * Version stamp for conditional GETs, served from the cache or a single-column query.
+     * Only a cache miss opens a transaction, on the primary so a lagging replica is never cached.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<BookVersion> findBookVersion(Long id) {
+        return bookCacheService.findVersion(id, this::loadUpdatedAt);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<BookVersion> findBookVersionByIsbn(String isbn) {
+        return bookCacheService.findVersionByIsbn(isbn,
+            value -> transactionTemplate.execute(status -> bookRepository.findIdByIsbn(value)),
+            this::loadUpdatedAt);
+    }
+
+    private Optional<LocalDateTime> loadUpdatedAt(Long id) {
+        return transactionTemplate.execute(status -> bookRepository.findUpdatedAtById(id));
     }
 
-    public List<Book> findBooksByAuthor(String author) {
+    /**
+     * Served from the {@link AuthorIndex} when it is enabled and current. Only a database fallback
+     * opens a (read-only) transaction, so index hits never take a database connection.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<BookView> findBooksByAuthor(String author) {
         logger.debug("Finding books by author: {}", author);
-        return bookRepository.findByAuthor(author);
+        if (authorIndex != null) {
+            Optional<List<BookView>> indexed = authorIndex.findByAuthor(author);
+            if (indexed.isPresent()) {
+                return indexed.get();
+            }
+        }
+        return readOnlyTransaction.execute(status -> bookQueryRepository.findByAuthor(author));
     }
 
-    public List<Book> searchBooksByTitle(String keyword) {
-        logger.debug("Searching books by title keyword: {}", keyword);
-        return bookRepository.findByTitleContainingIgnoreCase(keyword);
+    /**
+     * Ranked title search, capped at {@code demo.books.search.max-results}.
+     */
+    @Transactional(readOnly = true)
+    public List<BookView> searchBooksByTitle(String keyword, int limit) {
+        int maxResults = Math.min(Math.max(limit, 1), maxSearchResults);
+        logger.debug("Searching books by title keyword: {} (limit: {})", keyword, maxResults);
+        return bookQueryRepository.searchByTitle(keyword, maxResults);
     }
 
     public Book createBook(Book book) {
         logger.info("Creating new book: {}", book.getTitle());
-        book.setCreatedAt(LocalDateTime.now());
-        book.setUpdatedAt(LocalDateTime.now());
+        LocalDateTime now = now();
+        book.setCreatedAt(now);
+        book.setUpdatedAt(now);
         Book savedBook = bookRepository.save(book);
-        
-        bookEventProducer.sendBookCreatedEvent(
-            savedBook.getId(), 
-            savedBook.getTitle(), 
-            savedBook.getAuthor()
-        );
-        
+        recordEvent("BOOK_CREATED", savedBook);
         return savedBook;
     }
 
+    /**
+     * Inserts books in chunks of {@code demo.books.bulk.chunk-size}. Each chunk is one transaction,
+     * flushed as JDBC batch inserts, and records a single {@code BOOKS_IMPORTED} event.
+     * Chunks committed before a failure stay committed.
+     * <p>
+     * With open-in-view the request keeps one persistence context across all chunks, so each chunk
+     * clears it after flushing; otherwise every imported book would stay managed and be dirty-checked
+     * again on each later flush.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkImportResult importBooks(Iterator<Book> books) {
+        logger.info("Importing books in chunks of {}", bulkChunkSize);
+        long start = System.nanoTime();
+        long imported = 0;
+        int chunks = 0;
+        List<Book> chunk = new ArrayList<>(bulkChunkSize);
+        while (books.hasNext()) {
+            chunk.add(books.next());
+            if (chunk.size() == bulkChunkSize || !books.hasNext()) {
+                imported += importChunk(chunk);
+                chunks++;
+                chunk.clear();
+            }
+        }
+        long elapsedMillis = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+        long rowsPerSecond = imported * 1000 / elapsedMillis;
+        logger.info("Imported {} books in {} chunks ({} ms, {} rows/s)", imported, chunks, elapsedMillis, rowsPerSecond);
+        return new BulkImportResult(imported, chunks, elapsedMillis, rowsPerSecond);
+    }
+
+    private int importChunk(List<Book> chunk) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = now();
+            for (Book book : chunk) {
+                book.setId(null);
+                book.setCreatedAt(now);
+                book.setUpdatedAt(now);
+            }
+            List<Book> savedBooks = bookRepository.saveAll(chunk);
+            BookOutboxEvent event = new BookOutboxEvent("BOOKS_IMPORTED", null, null, null);
+            event.setBookIds(savedBooks.stream().map(Book::getId).toList());
+            bookOutboxRepository.save(event);
+            entityManager.flush();
+            entityManager.clear();
+            return savedBooks.size();
+        });
+    }
+
     public Optional<Book> updateBook(Long id, Book bookDetails) {
+        return updateBook(id, bookDetails, null);
+    }
+
+    /**
+     * Updates a book if {@code ifMatch} is {@code null} or matches its current version. The row is
+     * locked while the version is compared, so concurrent conditional updates cannot both succeed.
+     *
+     * @throws BookVersionConflictException if {@code ifMatch} does not match
+     */
+    public Optional<Book> updateBook(Long id, Book bookDetails, String ifMatch) {
         logger.info("Updating book with id: {}", id);
-        return bookRepository.findById(id)
+        Optional<Book> existing = ifMatch == null ? bookRepository.findById(id) : bookRepository.findByIdForUpdate(id);
+        return existing
             .map(book -> {
+                if (ifMatch != null && !BookVersion.of(book).matches(ifMatch)) {
+                    throw new BookVersionConflictException(BookVersion.of(book));
+                }
+                if (book.getIsbn() != null && !book.getIsbn().equals(bookDetails.getIsbn())) {
+                    bookCacheService.evictIsbnAfterCommit(book.getIsbn());
+                }
                 book.setTitle(bookDetails.getTitle());
                 book.setAuthor(bookDetails.getAuthor());
                 book.setIsbn(bookDetails.getIsbn());
                 book.setPublishedYear(bookDetails.getPublishedYear());
-                book.setUpdatedAt(LocalDateTime.now());
+                book.setUpdatedAt(now());
                 Book updatedBook = bookRepository.save(book);
-                
-                bookEventProducer.sendBookUpdatedEvent(
-                    updatedBook.getId(), 
-                    updatedBook.getTitle(), 
-                    updatedBook.getAuthor()
-                );
-                
+                bookCacheService.evictAfterCommit(updatedBook.getId());
+                recordEvent("BOOK_UPDATED", updatedBook);
                 return updatedBook;
             });
     }
@@ -95,13 +249,25 @@ public class BookService {
         return bookRepository.findById(id)
             .map(book -> {
                 bookRepository.delete(book);
-                bookEventProducer.sendBookDeletedEvent(
-                    book.getId(), 
-                    book.getTitle(), 
-                    book.getAuthor()
-                );
+                bookCacheService.evictAfterCommit(book.getId());
+                if (book.getIsbn() != null) {
+                    bookCacheService.evictIsbnAfterCommit(book.getIsbn());
+                }
+                recordEvent("BOOK_DELETED", book);
                 return true;
             })
             .orElse(false);
     }
+
+    /**
+     * Timestamps are truncated to the microsecond precision PostgreSQL stores, so the ETag of the
+     * returned entity equals the one computed later from the database.
+     */
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private void recordEvent(String eventType, Book book) {
+        bookOutboxRepository.save(new BookOutboxEvent(eventType, book.getId(), book.getTitle(), book.getAuthor()));
+    }
 }
@@ -0,0 +1,58 @@
+package io.arconia.demo.service;
+
+import io.arconia.demo.entity.Book;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Version stamp of a book, derived from its {@code updatedAt}, used for ETag and Last-Modified.
+ */
+public record BookVersion(Long id, LocalDateTime updatedAt) {
+
+    public static BookVersion of(Book book) {
+        return new BookVersion(book.getId(), book.getUpdatedAt());
+    }
+
+    /**
+     * Rebuilds a version from {@link #micros()}, as stored in the version cache.
+     */
+    static BookVersion ofMicros(Long id, long micros) {
+        return new BookVersion(id, micros == 0 ? null
+            : LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC).plus(micros, ChronoUnit.MICROS));
+    }
+
+    long micros() {
+        return updatedAt == null ? 0 : ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), updatedAt);
+    }
+
+    /**
+     * Strong ETag, e.g. {@code "42-1735732800123456"}.
+     */
+    public String etag() {
+        return "\"" + id + "-" + micros() + "\"";
+    }
+
+    /**
+     * {@code updatedAt} in epoch millis, interpreting it in the server time zone it was written in.
+     */
+    public long lastModified() {
+        return updatedAt == null ? -1 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Whether an {@code If-Match} header value matches this version. Weak tags never match.
+     */
+    public boolean matches(String ifMatch) {
+        String etag = etag();
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
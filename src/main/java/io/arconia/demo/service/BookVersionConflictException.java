@@ -0,0 +1,18 @@
+package io.arconia.demo.service;
+
+/**
+ * Thrown when a conditional update's {@code If-Match} does not match the book's current version.
+ */
+public class BookVersionConflictException extends RuntimeException {
+
+    private final BookVersion current;
+
+    public BookVersionConflictException(BookVersion current) {
+        super("Book " + current.id() + " is at version " + current.etag());
+        this.current = current;
+    }
+
+    public BookVersion getCurrent() {
+        return current;
+    }
+}
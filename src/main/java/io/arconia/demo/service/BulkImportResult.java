@@ -0,0 +1,7 @@
+package io.arconia.demo.service;
+
+/**
+ * Outcome of a bulk book import, including the measured insert rate.
+ */
+public record BulkImportResult(long imported, int chunks, long elapsedMillis, long rowsPerSecond) {
+}
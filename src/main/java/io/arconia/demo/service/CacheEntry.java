@@ -0,0 +1,7 @@
+package io.arconia.demo.service;
+
+/**
+ * A value to cache under {@code key} for {@code ttlSeconds}.
+ */
+public record CacheEntry(String key, Object value, long ttlSeconds) {
+}
@@ -1,32 +1,118 @@
 package io.arconia.demo.service;
 
+import io.arconia.demo.config.LatencyTimer;
 import io.arconia.demo.entity.CachedSession;
 import io.arconia.demo.repository.SessionRepository;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ValueScanCursor;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.opentelemetry.api.metrics.Meter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.convert.Bucket;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Service class for session caching operations with Redis.
+ * Every Redis round trip is timed in {@code arconia.redis.command.duration} by command; reads
+ * through the near cache are timed as {@code GET near-cache}, hits included.
  */
 @Service
 public class CacheService {
 
     private static final Logger logger = LoggerFactory.getLogger(CacheService.class);
     private static final String CACHE_PREFIX = "cache:";
+    private static final String SESSIONS_KEYSPACE = CachedSession.KEYSPACE;
+    private static final byte[] SESSIONS_KEY = SESSIONS_KEYSPACE.getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * How session reads record {@code lastAccessedAt}.
+     */
+    public enum TouchMode {
+        /** Buffer the access time and flush it in batches through {@link SessionTouchBuffer}. */
+        WRITE_BEHIND,
+        /** Save the whole session on every read. */
+        WRITE_THROUGH
+    }
 
     private final SessionRepository sessionRepository;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final ValueNearCache nearCache;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisConverter redisConverter;
+    private final SessionTouchBuffer touchBuffer;
+    private final CacheValueLoader valueLoader;
+    private final TouchMode touchMode;
+
+    private final LatencyTimer.Operation smembers;
+    private final LatencyTimer.Operation sscan;
+    private final LatencyTimer.Operation hgetallPipeline;
+    private final LatencyTimer.Operation set;
+    private final LatencyTimer.Operation get;
+    private final LatencyTimer.Operation nearCacheGet;
+    private final LatencyTimer.Operation del;
+    private final LatencyTimer.Operation mget;
+    private final LatencyTimer.Operation setPipeline;
+    private final LatencyTimer.Operation unlink;
+
+    @Value("${demo.sessions.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${demo.cache.batch.max-size:100}")
+    private int maxBatchSize;
+
+    @Value("${spring.data.redis.timeout:60s}")
+    private Duration commandTimeout;
 
-    public CacheService(SessionRepository sessionRepository, RedisTemplate<String, Object> redisTemplate) {
+    public CacheService(SessionRepository sessionRepository, RedisTemplate<String, Object> redisTemplate,
+                        StringRedisTemplate stringRedisTemplate, RedisConverter redisConverter,
+                        ObjectProvider<ValueNearCache> nearCache, SessionTouchBuffer touchBuffer,
+                        CacheValueLoader valueLoader, Meter meter,
+                        @Value("${demo.sessions.touch.mode:WRITE_BEHIND}") TouchMode touchMode) {
         this.sessionRepository = sessionRepository;
         this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisConverter = redisConverter;
+        this.nearCache = nearCache.getIfAvailable();
+        this.touchBuffer = touchBuffer;
+        this.valueLoader = valueLoader;
+        this.touchMode = touchMode;
+        LatencyTimer redisTimer = LatencyTimer.redisCommands(meter);
+        this.smembers = redisTimer.operation("SMEMBERS");
+        this.sscan = redisTimer.operation("SSCAN");
+        this.hgetallPipeline = redisTimer.operation("HGETALL pipeline");
+        this.set = redisTimer.operation("SET");
+        this.get = redisTimer.operation("GET");
+        this.nearCacheGet = redisTimer.operation("GET near-cache");
+        this.del = redisTimer.operation("DEL");
+        this.mget = redisTimer.operation("MGET");
+        this.setPipeline = redisTimer.operation("SET pipeline");
+        this.unlink = redisTimer.operation("UNLINK");
     }
 
     public CachedSession createSession(String userId, String username, String data) {
@@ -40,38 +126,196 @@ public class CacheService {
         logger.debug("Getting session: {}", sessionId);
         return sessionRepository.findById(sessionId)
             .map(session -> {
-                session.setLastAccessedAt(System.currentTimeMillis());
-                return sessionRepository.save(session);
+                long now = System.currentTimeMillis();
+                if (touchMode == TouchMode.WRITE_THROUGH) {
+                    session.setLastAccessedAt(now);
+                    return sessionRepository.save(session);
+                }
+                touchBuffer.touch(sessionId, session.getLastAccessedAt(), now);
+                session.setLastAccessedAt(now);
+                return session;
             });
     }
 
+    /**
+     * Resolves the {@code userId} index set and loads every session hash in a single pipeline.
+     */
     public List<CachedSession> getSessionsByUserId(String userId) {
         logger.debug("Getting sessions for user: {}", userId);
-        return sessionRepository.findByUserId(userId);
+        Set<String> ids = smembers.time(() ->
+            stringRedisTemplate.opsForSet().members(SESSIONS_KEYSPACE + ":userId:" + userId));
+        return ids == null || ids.isEmpty() ? List.of() : loadSessions(new ArrayList<>(ids));
     }
 
     public void deleteSession(String sessionId) {
         logger.debug("Deleting session: {}", sessionId);
+        touchBuffer.forget(sessionId);
         sessionRepository.deleteById(sessionId);
     }
 
-    public List<CachedSession> getAllSessions() {
-        logger.debug("Getting all sessions");
-        return sessionRepository.findAll();
+    /**
+     * Returns one {@code SSCAN} step over the sessions keyspace set, starting at {@code cursor}
+     * ({@code "0"} for the first page). {@code count} is passed as the scan hint, so a page holds
+     * about that many sessions; small sets are returned in one page. A session can appear on two
+     * pages if the set is rehashed during the scan. The cursor must be an unsigned 64-bit decimal,
+     * as Redis returns it.
+     */
+    public SessionPage getSessionPage(String cursor, int count) {
+        logger.debug("Scanning sessions from cursor: {}", cursor);
+        checkCursor(cursor);
+        int pageSize = Math.min(Math.max(count, 1), maxPageSize);
+        ValueScanCursor<byte[]> scan = sscan.time(() ->
+            stringRedisTemplate.execute((RedisCallback<ValueScanCursor<byte[]>>) connection -> {
+                @SuppressWarnings("unchecked")
+                RedisClusterAsyncCommands<byte[], byte[]> commands =
+                    (RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+                return LettuceFutures.awaitOrCancel(
+                    commands.sscan(SESSIONS_KEY, ScanCursor.of(cursor), ScanArgs.Builder.limit(pageSize)),
+                    commandTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            }));
+        List<String> ids = scan.getValues().stream()
+            .map(id -> new String(id, StandardCharsets.UTF_8))
+            .toList();
+        return new SessionPage(loadSessions(ids), scan.isFinished() ? null : scan.getCursor());
+    }
+
+    /**
+     * Fetches session hashes with one pipelined {@code HGETALL} each. Ids whose hash has
+     * expired are left in the index sets by Spring Data Redis and are skipped here.
+     */
+    @SuppressWarnings("unchecked")
+    private List<CachedSession> loadSessions(List<String> ids) {
+        // Hash replies are decoded with the template's string hash serializers
+        List<Object> hashes = hgetallPipeline.time(() ->
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                ids.forEach(id -> connection.hashCommands()
+                    .hGetAll((SESSIONS_KEYSPACE + ":" + id).getBytes(StandardCharsets.UTF_8)));
+                return null;
+            }));
+        List<CachedSession> sessions = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            if (!(hashes.get(i) instanceof Map<?, ?> hash) || hash.isEmpty()) {
+                continue;
+            }
+            RedisData data = new RedisData(Bucket.newBucketFromStringMap((Map<String, String>) hash));
+            data.setId(ids.get(i));
+            data.setKeyspace(SESSIONS_KEYSPACE);
+            sessions.add(redisConverter.read(CachedSession.class, data));
+        }
+        return sessions;
     }
 
     public void cacheValue(String key, Object value, long ttlSeconds) {
         logger.debug("Caching value with key: {}", key);
-        redisTemplate.opsForValue().set(CACHE_PREFIX + key, value, ttlSeconds, TimeUnit.SECONDS);
+        set.time(() -> redisTemplate.opsForValue().set(CACHE_PREFIX + key, value, ttlSeconds, TimeUnit.SECONDS));
+        invalidateNearCache(CACHE_PREFIX + key);
     }
 
     public Object getCachedValue(String key) {
         logger.debug("Getting cached value for key: {}", key);
-        return redisTemplate.opsForValue().get(CACHE_PREFIX + key);
+        if (nearCache != null) {
+            return nearCacheGet.time(() -> nearCache.get(CACHE_PREFIX + key));
+        }
+        return get.time(() -> redisTemplate.opsForValue().get(CACHE_PREFIX + key));
+    }
+
+    /**
+     * Returns the cached value, computing it with {@code loader} on a miss. Concurrent misses are
+     * collapsed into one load across replicas and hot keys are refreshed before they expire.
+     */
+    public Object getCachedValue(String key, long ttlSeconds, Supplier<?> loader) {
+        logger.debug("Getting cached value for key: {} with loader", key);
+        return valueLoader.get(CACHE_PREFIX + key, ttlSeconds, loader);
     }
 
     public void deleteCachedValue(String key) {
         logger.debug("Deleting cached value for key: {}", key);
-        redisTemplate.delete(CACHE_PREFIX + key);
+        del.time(() -> redisTemplate.delete(CACHE_PREFIX + key));
+        invalidateNearCache(CACHE_PREFIX + key);
+    }
+
+    /**
+     * Reads many values with a single {@code MGET}.
+     */
+    public CachedValues getCachedValues(Collection<String> keys) {
+        List<String> distinctKeys = List.copyOf(new LinkedHashSet<>(keys));
+        checkBatchSize(distinctKeys.size());
+        logger.debug("Getting {} cached values", distinctKeys.size());
+        List<String> redisKeys = distinctKeys.stream().map(key -> CACHE_PREFIX + key).toList();
+        List<Object> found = mget.time(() -> redisTemplate.opsForValue().multiGet(redisKeys));
+        Map<String, Object> values = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < distinctKeys.size(); i++) {
+            Object value = found == null ? null : found.get(i);
+            if (value != null) {
+                values.put(distinctKeys.get(i), value);
+            } else {
+                missing.add(distinctKeys.get(i));
+            }
+        }
+        return new CachedValues(values, missing);
+    }
+
+    /**
+     * Writes many values, each with its own TTL, as one pipelined batch of {@code SET ... EX}.
+     */
+    public void cacheValues(List<CacheEntry> entries) {
+        checkBatchSize(entries.size());
+        for (CacheEntry entry : entries) {
+            if (entry.key() == null || entry.value() == null || entry.ttlSeconds() <= 0) {
+                throw new IllegalArgumentException("Each entry needs a key, a value and a positive ttl");
+            }
+        }
+        logger.debug("Caching {} values", entries.size());
+        setPipeline.time(() -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redis = (RedisOperations<String, Object>) operations;
+                entries.forEach(entry -> redis.opsForValue()
+                    .set(CACHE_PREFIX + entry.key(), entry.value(), entry.ttlSeconds(), TimeUnit.SECONDS));
+                return null;
+            }
+        }));
+        entries.forEach(entry -> invalidateNearCache(CACHE_PREFIX + entry.key()));
+    }
+
+    /**
+     * Deletes many values with a single {@code UNLINK} and returns how many existed.
+     */
+    public long deleteCachedValues(Collection<String> keys) {
+        List<String> redisKeys = new LinkedHashSet<>(keys).stream().map(key -> CACHE_PREFIX + key).toList();
+        checkBatchSize(redisKeys.size());
+        logger.debug("Deleting {} cached values", redisKeys.size());
+        Long deleted = unlink.time(() -> redisTemplate.unlink(redisKeys));
+        redisKeys.forEach(this::invalidateNearCache);
+        return deleted == null ? 0 : deleted;
+    }
+
+    private static void checkCursor(String cursor) {
+        if (cursor == null || !cursor.matches("[0-9]{1,20}")) {
+            throw new IllegalArgumentException("Cursor must be an unsigned decimal number");
+        }
+        try {
+            Long.parseUnsignedLong(cursor);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Cursor must be an unsigned decimal number", ex);
+        }
+    }
+
+    private void checkBatchSize(int size) {
+        if (size == 0 || size > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + maxBatchSize);
+        }
+    }
+
+    /**
+     * Gives this JVM read-your-writes without waiting for the tracking invalidation
+     * that Redis pushes to every near cache, including this one.
+     */
+    private void invalidateNearCache(String redisKey) {
+        if (nearCache != null) {
+            nearCache.invalidate(redisKey);
+        }
     }
 }
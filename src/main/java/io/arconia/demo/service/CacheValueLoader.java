@@ -0,0 +1,275 @@
+package io.arconia.demo.service;
+
+import io.arconia.demo.config.LatencyTimer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Read-through loading for Redis cache values with stampede protection.
+ * <p>
+ * Concurrent misses for one key share a single load per JVM. Across replicas the loader takes a
+ * short {@code SET NX PX} lease; replicas that do not get it wait for the value to appear and only
+ * load themselves if the lease expires first. Hits refresh early in the background with
+ * probability growing towards expiry (XFetch), weighted by how long the last load took, so hot
+ * keys are reloaded before they expire instead of on the request path.
+ * <p>
+ * Redis round trips are timed in {@code arconia.redis.command.duration}, like those of {@link CacheService}.
+ */
+@Component
+public class CacheValueLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheValueLoader.class);
+    private static final String LEASE_PREFIX = "cache-lease:";
+    private static final String DELTA_PREFIX = "cache-delta:";
+    private static final long LEASE_POLL_MILLIS = 25;
+    private static final RedisScript<Long> RELEASE_LEASE = new DefaultRedisScript<>("""
+        if redis.call('GET', KEYS[1]) == ARGV[1] then
+          return redis.call('DEL', KEYS[1])
+        end
+        return 0
+        """, Long.class);
+
+    private static final AttributeKey<String> RESULT = AttributeKey.stringKey("result");
+    private static final Attributes HIT = Attributes.of(RESULT, "hit");
+    private static final Attributes MISS = Attributes.of(RESULT, "miss");
+    private static final Attributes COLLAPSED = Attributes.of(RESULT, "collapsed");
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Duration lease;
+    private final double beta;
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final LongCounter requests;
+    private final LongCounter refreshes;
+    private final LatencyTimer.Operation readPipeline;
+    private final LatencyTimer.Operation leaseSet;
+    private final LatencyTimer.Operation get;
+    private final LatencyTimer.Operation storePipeline;
+    private final LatencyTimer.Operation leaseRelease;
+
+    public CacheValueLoader(RedisTemplate<String, Object> redisTemplate,
+                            StringRedisTemplate stringRedisTemplate,
+                            Meter meter,
+                            @Value("${demo.cache.loader.lease:5s}") Duration lease,
+                            @Value("${demo.cache.loader.early-refresh-beta:1.0}") double beta) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.lease = lease;
+        this.beta = beta;
+        this.requests = meter.counterBuilder("arconia.cache.loader.requests")
+            .setDescription("Loading cache reads by result")
+            .build();
+        this.refreshes = meter.counterBuilder("arconia.cache.loader.refreshes")
+            .setDescription("Cache values refreshed early in the background")
+            .build();
+        LatencyTimer redisTimer = LatencyTimer.redisCommands(meter);
+        this.readPipeline = redisTimer.operation("GET PTTL pipeline");
+        this.leaseSet = redisTimer.operation("SET NX");
+        this.get = redisTimer.operation("GET");
+        this.storePipeline = redisTimer.operation("SET pipeline");
+        this.leaseRelease = redisTimer.operation("EVAL");
+    }
+
+    /**
+     * Returns the value stored under {@code redisKey}, loading and caching it for {@code ttlSeconds}
+     * on a miss. A {@code null} result from the loader is returned but not cached.
+     */
+    public Object get(String redisKey, long ttlSeconds, Supplier<?> loader) {
+        List<Object> reads = readPipeline.time(() -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redis = (RedisOperations<String, Object>) operations;
+                redis.opsForValue().get(redisKey);
+                redis.getExpire(redisKey, TimeUnit.MILLISECONDS);
+                redis.opsForValue().get(DELTA_PREFIX + redisKey);
+                return null;
+            }
+        }));
+        Object value = reads.get(0);
+        if (value != null) {
+            requests.add(1, HIT);
+            if (shouldRefreshEarly(reads.get(1), reads.get(2))) {
+                refreshInBackground(redisKey, ttlSeconds, loader);
+            }
+            return value;
+        }
+        requests.add(1, MISS);
+        return join(loadOnce(redisKey, ttlSeconds, loader));
+    }
+
+    /**
+     * XFetch: refresh when {@code -delta * beta * ln(random)} reaches the remaining TTL.
+     */
+    private boolean shouldRefreshEarly(Object ttlMillis, Object deltaMillis) {
+        if (!(ttlMillis instanceof Number ttl) || ttl.longValue() <= 0 || !(deltaMillis instanceof Number delta)) {
+            return false;
+        }
+        double random = ThreadLocalRandom.current().nextDouble();
+        return -delta.doubleValue() * beta * Math.log(random) >= ttl.doubleValue();
+    }
+
+    /**
+     * Refreshes are tracked apart from {@code inFlight}: a refresh that finds the lease taken
+     * yields {@code null}, which a miss must never receive in place of a value.
+     */
+    private void refreshInBackground(String redisKey, long ttlSeconds, Supplier<?> loader) {
+        if (inFlight.containsKey(redisKey) || !refreshing.add(redisKey)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                if (loadWithLease(redisKey, ttlSeconds, loader, true) != null) {
+                    refreshes.add(1);
+                }
+            } catch (RuntimeException ex) {
+                logger.warn("Early refresh of cache key {} failed", redisKey, ex);
+            } finally {
+                refreshing.remove(redisKey);
+            }
+        });
+    }
+
+    /**
+     * Runs at most one load per key in this JVM; other callers share its result.
+     */
+    private CompletableFuture<Object> loadOnce(String redisKey, long ttlSeconds, Supplier<?> loader) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(redisKey, load);
+        if (existing != null) {
+            requests.add(1, COLLAPSED);
+            return existing;
+        }
+        try {
+            load.complete(loadWithLease(redisKey, ttlSeconds, loader, false));
+        } catch (RuntimeException ex) {
+            load.completeExceptionally(ex);
+        } finally {
+            inFlight.remove(redisKey, load);
+        }
+        return load;
+    }
+
+    /**
+     * Loads under the cross-replica lease. A refresh that cannot take the lease is skipped, since
+     * another replica is already refreshing; a miss waits for that replica's value instead.
+     */
+    private Object loadWithLease(String redisKey, long ttlSeconds, Supplier<?> loader, boolean refresh) {
+        String leaseKey = LEASE_PREFIX + redisKey;
+        String token = UUID.randomUUID().toString();
+        long deadline = System.nanoTime() + lease.toNanos();
+        while (!takeLease(leaseKey, token)) {
+            if (refresh) {
+                return null;
+            }
+            Object loaded = get.time(() -> redisTemplate.opsForValue().get(redisKey));
+            if (loaded != null) {
+                return loaded;
+            }
+            if (System.nanoTime() > deadline) {
+                logger.debug("Lease on cache key {} not released in time, loading without it", redisKey);
+                return loadAndStore(redisKey, ttlSeconds, loader);
+            }
+            pause();
+        }
+        try {
+            if (!refresh) {
+                Object loaded = get.time(() -> redisTemplate.opsForValue().get(redisKey));
+                if (loaded != null) {
+                    return loaded;
+                }
+            }
+            return loadAndStore(redisKey, ttlSeconds, loader);
+        } finally {
+            releaseLease(leaseKey, token);
+        }
+    }
+
+    private Object loadAndStore(String redisKey, long ttlSeconds, Supplier<?> loader) {
+        long start = System.nanoTime();
+        Object value = loader.get();
+        long deltaMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (value != null) {
+            storePipeline.time(() -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> redis = (RedisOperations<String, Object>) operations;
+                    redis.opsForValue().set(redisKey, value, ttlSeconds, TimeUnit.SECONDS);
+                    redis.opsForValue().set(DELTA_PREFIX + redisKey, deltaMillis, ttlSeconds, TimeUnit.SECONDS);
+                    return null;
+                }
+            }));
+        }
+        return value;
+    }
+
+    private boolean takeLease(String leaseKey, String token) {
+        Boolean taken = leaseSet.time(() -> stringRedisTemplate.opsForValue().setIfAbsent(leaseKey, token, lease));
+        return Boolean.TRUE.equals(taken);
+    }
+
+    private void releaseLease(String leaseKey, String token) {
+        try {
+            leaseRelease.time(() -> stringRedisTemplate.execute(RELEASE_LEASE, List.of(leaseKey), token));
+        } catch (DataAccessException ex) {
+            // The lease expires on its own
+            logger.warn("Failed to release cache lease {}", leaseKey, ex);
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(LEASE_POLL_MILLIS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for cache lease", ex);
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> load) {
+        try {
+            return load.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        refreshExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,10 @@
+package io.arconia.demo.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a multi-key cache read: the values found, in request order, and the keys that were missing.
+ */
+public record CachedValues(Map<String, Object> values, List<String> missing) {
+}
@@ -0,0 +1,12 @@
+package io.arconia.demo.service;
+
+import io.arconia.demo.entity.CachedSession;
+
+import java.util.List;
+
+/**
+ * A page of an {@code SSCAN} over all sessions. {@code nextCursor} is the scan cursor to resume from,
+ * or {@code null} once the scan is complete.
+ */
+public record SessionPage(List<CachedSession> sessions, String nextCursor) {
+}
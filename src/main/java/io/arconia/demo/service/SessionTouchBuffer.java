@@ -0,0 +1,131 @@
+package io.arconia.demo.service;
+
+import io.arconia.demo.config.LatencyTimer;
+import io.arconia.demo.entity.CachedSession;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for session {@code lastAccessedAt} updates.
+ * <p>
+ * Reads record the access time in memory; sessions touched within
+ * {@code demo.sessions.touch.resolution} of their stored access time are skipped. Pending
+ * touches are flushed in one pipeline that updates the hash field and renews the session
+ * TTL, guarded by a Lua {@code EXISTS} check so that deleted or expired sessions are not
+ * recreated as partial hashes. The flush pipeline is timed in {@code arconia.redis.command.duration}.
+ */
+@Component
+public class SessionTouchBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionTouchBuffer.class);
+
+    private static final String KEY_PREFIX = CachedSession.KEYSPACE + ":";
+    private static final byte[] TTL_SECONDS = bytes(String.valueOf(CachedSession.TIME_TO_LIVE_SECONDS));
+    private static final byte[] LAST_ACCESSED_AT = bytes("lastAccessedAt");
+    private static final byte[] TOUCH_SCRIPT = bytes("""
+        if redis.call('EXISTS', KEYS[1]) == 1 then
+          redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+          redis.call('EXPIRE', KEYS[1], ARGV[3])
+          return 1
+        end
+        return 0
+        """);
+
+    private static final AttributeKey<String> RESULT = AttributeKey.stringKey("result");
+    private static final Attributes BUFFERED = Attributes.of(RESULT, "buffered");
+    private static final Attributes SKIPPED = Attributes.of(RESULT, "skipped");
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final long resolutionMillis;
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+    private final LongCounter touches;
+    private final LongCounter flushed;
+    private final LatencyTimer.Operation touchPipeline;
+
+    public SessionTouchBuffer(StringRedisTemplate stringRedisTemplate,
+                              Meter meter,
+                              @Value("${demo.sessions.touch.resolution:30s}") Duration resolution) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.resolutionMillis = resolution.toMillis();
+        this.touches = meter.counterBuilder("arconia.sessions.touches")
+            .setDescription("Session reads by whether the access time had to be written")
+            .build();
+        this.flushed = meter.counterBuilder("arconia.sessions.touches.flushed")
+            .setDescription("Session access times written to Redis by the write-behind flush")
+            .build();
+        this.touchPipeline = LatencyTimer.redisCommands(meter).operation("EVAL pipeline");
+    }
+
+    /**
+     * Records an access of a session whose stored access time is {@code storedAccessedAt}.
+     */
+    public void touch(String sessionId, long storedAccessedAt, long accessedAt) {
+        if (accessedAt - storedAccessedAt < resolutionMillis) {
+            touches.add(1, SKIPPED);
+            return;
+        }
+        pending.merge(sessionId, accessedAt, Math::max);
+        touches.add(1, BUFFERED);
+    }
+
+    public void forget(String sessionId) {
+        pending.remove(sessionId);
+    }
+
+    @Scheduled(fixedDelayString = "${demo.sessions.touch.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, Long> batch = new HashMap<>();
+        pending.forEach((sessionId, accessedAt) -> {
+            if (pending.remove(sessionId, accessedAt)) {
+                batch.put(sessionId, accessedAt);
+            }
+        });
+        try {
+            touchPipeline.time(() -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                batch.forEach((sessionId, accessedAt) -> writeTouch(connection, sessionId, accessedAt));
+                return null;
+            }));
+            flushed.add(batch.size());
+            logger.debug("Flushed {} session touches", batch.size());
+        } catch (RuntimeException ex) {
+            // Keep the newest access time of each session for the next attempt
+            batch.forEach((sessionId, accessedAt) -> pending.merge(sessionId, accessedAt, Math::max));
+            logger.warn("Failed to flush {} session touches, will retry", batch.size(), ex);
+        }
+    }
+
+    private static void writeTouch(RedisConnection connection, String sessionId, long accessedAt) {
+        connection.scriptingCommands().eval(TOUCH_SCRIPT, ReturnType.INTEGER, 1,
+            bytes(KEY_PREFIX + sessionId), LAST_ACCESSED_AT, bytes(String.valueOf(accessedAt)), TTL_SECONDS);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
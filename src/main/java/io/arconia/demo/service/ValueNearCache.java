@@ -0,0 +1,185 @@
+package io.arconia.demo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisConnectionDetails;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-heap L1 cache in front of the Redis value cache.
+ * <p>
+ * Misses are read over a dedicated RESP3 connection with {@code CLIENT TRACKING} enabled, so Redis
+ * pushes an invalidation message whenever a key this JVM has read is modified, deleted or expires.
+ * A load only installs its value if no invalidation arrived while it was in flight. When the
+ * tracking connection drops, the L1 cache is cleared and bypassed until tracking is re-enabled.
+ */
+@Component
+@ConditionalOnProperty(name = "demo.cache.near-cache.enabled", havingValue = "true")
+public class ValueNearCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValueNearCache.class);
+    private static final Object NULL_VALUE = new Object();
+
+    private final Cache<String, Object> cache;
+    private final RedisSerializer<?> valueSerializer;
+    private final RedisClient client;
+    private final StatefulRedisConnection<String, byte[]> connection;
+    private volatile boolean tracking;
+
+    public ValueNearCache(RedisConnectionDetails connectionDetails,
+                          RedisTemplate<String, Object> redisTemplate,
+                          @Value("${demo.cache.near-cache.max-entries:10000}") long maxEntries,
+                          @Value("${demo.cache.near-cache.ttl:60s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(ttl)
+            .build();
+        this.valueSerializer = redisTemplate.getValueSerializer();
+        this.client = RedisClient.create(redisUri(connectionDetails));
+        this.client.setOptions(ClientOptions.builder()
+            .protocolVersion(ProtocolVersion.RESP3)
+            .build());
+        this.client.addListener(new TrackingStateListener());
+        this.connection = client.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+        this.connection.addListener(this::onPushMessage);
+        this.connection.sync().clientTracking(TrackingArgs.Builder.enabled());
+        this.tracking = true;
+        logger.info("Near cache enabled with client-side tracking (max entries: {}, ttl: {})", maxEntries, ttl);
+    }
+
+    public Object get(String key) {
+        if (!tracking) {
+            return read(key);
+        }
+        ConcurrentMap<String, Object> entries = cache.asMap();
+        LoadToken token = new LoadToken();
+        Object existing = entries.putIfAbsent(key, token);
+        if (existing != null && !(existing instanceof LoadToken)) {
+            return existing == NULL_VALUE ? null : existing;
+        }
+        Object value;
+        try {
+            value = read(key);
+        } catch (RuntimeException ex) {
+            entries.remove(key, token);
+            throw ex;
+        }
+        if (existing == null) {
+            // Fails if an invalidation removed the token while the read was in flight.
+            entries.replace(key, token, value == null ? NULL_VALUE : value);
+        }
+        return value;
+    }
+
+    public void invalidate(String key) {
+        cache.invalidate(key);
+    }
+
+    /**
+     * Whether client-side tracking is enabled, and so whether reads go through the L1 cache.
+     */
+    boolean isTracking() {
+        return tracking;
+    }
+
+    @PreDestroy
+    public void close() {
+        tracking = false;
+        connection.close();
+        client.shutdown();
+    }
+
+    private Object read(String key) {
+        byte[] raw = connection.sync().get(key);
+        return raw == null ? null : valueSerializer.deserialize(raw);
+    }
+
+    private void onPushMessage(PushMessage message) {
+        if (!"invalidate".equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        if (content.size() > 1 && content.get(1) instanceof List<?> keys) {
+            keys.forEach(key -> cache.invalidate((String) key));
+        } else {
+            // A null key list means the server flushed its tracking table.
+            cache.invalidateAll();
+        }
+    }
+
+    private static RedisURI redisUri(RedisConnectionDetails connectionDetails) {
+        RedisConnectionDetails.Standalone standalone = connectionDetails.getStandalone();
+        RedisURI.Builder builder = RedisURI.builder()
+            .withHost(standalone.getHost())
+            .withPort(standalone.getPort())
+            .withDatabase(standalone.getDatabase());
+        if (connectionDetails.getPassword() != null) {
+            if (connectionDetails.getUsername() != null) {
+                builder.withAuthentication(connectionDetails.getUsername(), connectionDetails.getPassword());
+            } else {
+                builder.withPassword(connectionDetails.getPassword().toCharArray());
+            }
+        }
+        return builder.build();
+    }
+
+    private static final class LoadToken {
+    }
+
+    private final class TrackingStateListener implements RedisConnectionStateListener {
+
+        @Override
+        public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress socketAddress) {
+            if (connection == null) {
+                return;
+            }
+            // Tracking state does not survive a reconnect: start clean and re-enable it.
+            cache.invalidateAll();
+            connection.async().clientTracking(TrackingArgs.Builder.enabled())
+                .thenRun(() -> {
+                    cache.invalidateAll();
+                    tracking = true;
+                    logger.info("Near cache client-side tracking re-enabled");
+                });
+        }
+
+        @Override
+        public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+            boolean wasTracking = tracking;
+            tracking = false;
+            cache.invalidateAll();
+            if (wasTracking) {
+                logger.warn("Near cache tracking connection lost, bypassing L1 cache");
+            }
+        }
+
+        @Override
+        public void onRedisExceptionCaught(RedisChannelHandler<?, ?> handler, Throwable cause) {
+            logger.warn("Near cache tracking connection error", cause);
+        }
+    }
+}
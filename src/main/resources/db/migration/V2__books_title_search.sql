@@ -0,0 +1,10 @@
+-- Indexed title search for Arconia Demo
+-- V2__books_title_search.sql
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Trigram index: serves substring (ILIKE) and fuzzy word-similarity (<%) matches on title
+CREATE INDEX IF NOT EXISTS idx_books_title_trgm ON books USING gin (title gin_trgm_ops);
+
+-- Full-text index: serves ranked word matches on title
+CREATE INDEX IF NOT EXISTS idx_books_title_fts ON books USING gin (to_tsvector('english', title));
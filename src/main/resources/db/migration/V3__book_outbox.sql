@@ -0,0 +1,12 @@
+-- Transactional outbox for book events
+-- V3__book_outbox.sql
+
+CREATE TABLE IF NOT EXISTS book_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_id VARCHAR(36) NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    book_id BIGINT,
+    book_title VARCHAR(255),
+    book_author VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,8 @@
+-- Bulk ingestion support for Arconia Demo
+-- V4__bulk_ingestion.sql
+
+-- Book ids are allocated by Hibernate's pooled optimizer in blocks of 50 (allocationSize in Book)
+ALTER SEQUENCE books_id_seq INCREMENT BY 50;
+
+-- Ids of the books covered by an aggregated (per-chunk) event
+ALTER TABLE book_outbox ADD COLUMN IF NOT EXISTS book_ids JSONB;
@@ -0,0 +1,104 @@
+package io.arconia.demo.config;
+
+import io.arconia.demo.entity.CachedSession;
+import io.opentelemetry.api.OpenTelemetry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Round-trip and compatibility tests for {@link CompactValueRedisSerializer}.
+ */
+class CompactValueRedisSerializerTests {
+
+    private static final int MAX_VALUE_SIZE = 64 * 1024;
+
+    private final CompactValueRedisSerializer serializer =
+        new CompactValueRedisSerializer(256, MAX_VALUE_SIZE, OpenTelemetry.noop().getMeter("test"));
+
+    @Test
+    void roundTripsPlainJsonValues() {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("name", "featured-books");
+        value.put("ids", List.of(1, 2, 3));
+        value.put("enabled", true);
+        value.put("weight", 0.75);
+
+        assertThat(serializer.deserialize(serializer.serialize(value))).isEqualTo(value);
+        assertThat(serializer.deserialize(serializer.serialize("my-value"))).isEqualTo("my-value");
+        assertThat(serializer.deserialize(serializer.serialize(42))).isEqualTo(42);
+    }
+
+    @Test
+    void roundTripsTypedValues() {
+        CachedSession session = new CachedSession("s1", "user123", "john_doe", "data");
+
+        Object read = serializer.deserialize(serializer.serialize(session));
+
+        assertThat(read).isInstanceOf(CachedSession.class).usingRecursiveComparison().isEqualTo(session);
+    }
+
+    @Test
+    void compressesLargeValues() {
+        String value = "book-title ".repeat(500);
+
+        byte[] bytes = serializer.serialize(value);
+
+        assertThat(bytes.length).isLessThan(value.length() / 4);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(value);
+    }
+
+    @Test
+    void readsLegacyJsonEntries() {
+        GenericJackson2JsonRedisSerializer legacy = new GenericJackson2JsonRedisSerializer();
+        Map<String, Object> value = Map.of("key", "value");
+
+        assertThat(serializer.deserialize(legacy.serialize(value))).isEqualTo(value);
+        assertThat(serializer.deserialize(legacy.serialize("my-value"))).isEqualTo("my-value");
+    }
+
+    @Test
+    void rejectsTruncatedHeaders() {
+        byte[] compressed = serializer.serialize("book-title ".repeat(500));
+
+        assertThatThrownBy(() -> serializer.deserialize(new byte[] {(byte) 0xFF, 0}))
+            .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> serializer.deserialize(Arrays.copyOf(compressed, 5)))
+            .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> serializer.deserialize(Arrays.copyOf(compressed, compressed.length / 2)))
+            .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void rejectsDeclaredLengthsOutsideTheLimit() {
+        assertThatThrownBy(() -> serializer.deserialize(compressedFrame(-1)))
+            .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> serializer.deserialize(compressedFrame(MAX_VALUE_SIZE + 1)))
+            .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> serializer.deserialize(compressedFrame(Integer.MAX_VALUE)))
+            .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void rejectsUnknownCodecs() {
+        assertThatThrownBy(() -> serializer.deserialize(new byte[] {(byte) 0xFF, 7, 1, 'x'}))
+            .isInstanceOf(SerializationException.class);
+    }
+
+    private static byte[] compressedFrame(int declaredLength) {
+        return ByteBuffer.allocate(3 + 4 + 2)
+            .put((byte) 0xFF).put((byte) 1).put((byte) 1)
+            .putInt(declaredLength)
+            .put(new byte[] {0x78, 0x01})
+            .array();
+    }
+}
@@ -0,0 +1,145 @@
+package io.arconia.demo.config;
+
+import io.arconia.demo.entity.Book;
+import io.arconia.demo.repository.BookQueryRepository;
+import io.arconia.demo.repository.BookView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that {@link ReplicaDataSourceConfig} sends read-only transactions to the replica and
+ * everything else to the primary. Uses two independent PostgreSQL containers with the same schema,
+ * where a marker book exists only on the "replica". Runs with Hibernate and the
+ * {@link JpaTransactionManager}, as the application does, covering both JPA and JDBC reads.
+ */
+@Testcontainers
+@DisabledInNativeImage
+class ReplicaRoutingTests {
+
+    private static final String REPLICA_ONLY_AUTHOR = "Replica Only";
+
+    @Container
+    static final PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Container
+    static final PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class))
+        .withUserConfiguration(ReplicaDataSourceConfig.class, EntityConfig.class)
+        .withBean(BookQueryRepository.class)
+        .withPropertyValues(
+            "spring.datasource.url=" + primary.getJdbcUrl(),
+            "spring.datasource.username=" + primary.getUsername(),
+            "spring.datasource.password=" + primary.getPassword(),
+            "demo.datasource.replica.url=" + replica.getJdbcUrl(),
+            "demo.datasource.replica.username=" + replica.getUsername(),
+            "demo.datasource.replica.password=" + replica.getPassword());
+
+    @BeforeAll
+    static void createSchemas() {
+        for (PostgreSQLContainer<?> container : List.of(primary, replica)) {
+            Flyway.configure()
+                .dataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword())
+                .load()
+                .migrate();
+        }
+        JdbcClient.create(new DriverManagerDataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword()))
+            .sql("INSERT INTO books (title, author, isbn) VALUES ('Marker', ?, 'replica-1')")
+            .param(REPLICA_ONLY_AUTHOR)
+            .update();
+    }
+
+    @Test
+    void usesJpaTransactionManager() {
+        contextRunner.run(context ->
+            assertThat(context.getBean(PlatformTransactionManager.class)).isInstanceOf(JpaTransactionManager.class));
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromReplica() {
+        contextRunner.run(context -> {
+            TransactionTemplate readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            readOnly.setReadOnly(true);
+            BookQueryRepository books = context.getBean(BookQueryRepository.class);
+            EntityManager entityManager = entityManager(context.getBean(EntityManagerFactory.class));
+
+            List<BookView> found = readOnly.execute(status -> books.findByAuthor(REPLICA_ONLY_AUTHOR));
+            List<String> titles = readOnly.execute(status -> findTitles(entityManager));
+
+            assertThat(found).extracting(BookView::title).containsExactly("Marker");
+            assertThat(titles).containsExactly("Marker");
+        });
+    }
+
+    @Test
+    void readWriteTransactionsAndNonTransactionalReadsUsePrimary() {
+        contextRunner.run(context -> {
+            TransactionTemplate readWrite = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            BookQueryRepository books = context.getBean(BookQueryRepository.class);
+            EntityManager entityManager = entityManager(context.getBean(EntityManagerFactory.class));
+
+            assertThat(readWrite.execute(status -> books.findByAuthor(REPLICA_ONLY_AUTHOR))).isEmpty();
+            assertThat(readWrite.execute(status -> findTitles(entityManager))).isEmpty();
+            assertThat(books.findByAuthor(REPLICA_ONLY_AUTHOR)).isEmpty();
+        });
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        contextRunner.run(context -> {
+            TransactionTemplate readWrite = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            JdbcClient jdbcClient = JdbcClient.create(context.getBean(DataSource.class));
+
+            readWrite.executeWithoutResult(status -> jdbcClient
+                .sql("INSERT INTO books (title, author, isbn) VALUES ('Written', 'Primary Writer', 'primary-1')")
+                .update());
+
+            JdbcClient primaryClient = JdbcClient.create(
+                new DriverManagerDataSource(primary.getJdbcUrl(), primary.getUsername(), primary.getPassword()));
+            assertThat(primaryClient.sql("SELECT count(*) FROM books WHERE isbn = 'primary-1'")
+                .query(Long.class).single()).isEqualTo(1L);
+        });
+    }
+
+    private static EntityManager entityManager(EntityManagerFactory entityManagerFactory) {
+        return SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+    }
+
+    private static List<String> findTitles(EntityManager entityManager) {
+        return entityManager.createQuery("SELECT b.title FROM Book b WHERE b.author = :author", String.class)
+            .setParameter("author", REPLICA_ONLY_AUTHOR)
+            .getResultList();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EntityScan(basePackageClasses = Book.class)
+    static class EntityConfig {
+    }
+}
@@ -0,0 +1,223 @@
+package io.arconia.demo.controller;
+
+import io.arconia.demo.entity.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end tests for the book endpoints against the dev services PostgreSQL, Redis and Kafka.
+ * Every test creates its own books with unique ISBNs, so they do not depend on the table contents.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class BookControllerTests {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    void getReturnsETagAndAnswersMatchingIfNoneMatchWithNotModified() {
+        Book book = create("Conditional GET", uniqueIsbn());
+
+        String etag = etagOf("/api/books/" + book.getId());
+
+        assertThat(etag).isEqualTo("\"" + book.getId() + "-" + micros(book) + "\"");
+        client.get().uri("/api/books/{id}", book.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, etag)
+            .exchange()
+            .expectStatus().isNotModified()
+            .expectHeader().valueEquals(HttpHeaders.ETAG, etag);
+        client.get().uri("/api/books/{id}", book.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, "\"0-0\"")
+            .exchange()
+            .expectStatus().isOk();
+    }
+
+    @Test
+    void isbnGetAnswersIfNoneMatchWithNotModified() {
+        String isbn = uniqueIsbn();
+        create("Conditional ISBN GET", isbn);
+
+        String etag = etagOf("/api/books/isbn/" + isbn);
+
+        client.get().uri("/api/books/isbn/{isbn}", isbn)
+            .header(HttpHeaders.IF_NONE_MATCH, etag)
+            .exchange()
+            .expectStatus().isNotModified();
+    }
+
+    @Test
+    void updateWithStaleIfMatchIsRejectedWithTheCurrentETag() {
+        Book book = create("Conditional PUT", uniqueIsbn());
+        String etag = etagOf("/api/books/" + book.getId());
+
+        String updatedEtag = client.put().uri("/api/books/{id}", book.getId())
+            .header(HttpHeaders.IF_MATCH, etag)
+            .bodyValue(new Book("Conditional PUT v2", "Test Author", book.getIsbn(), 2024))
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(Book.class)
+            .getResponseHeaders().getETag();
+
+        assertThat(updatedEtag).isNotEqualTo(etag);
+        client.put().uri("/api/books/{id}", book.getId())
+            .header(HttpHeaders.IF_MATCH, etag)
+            .bodyValue(new Book("Conditional PUT v3", "Test Author", book.getIsbn(), 2024))
+            .exchange()
+            .expectStatus().isEqualTo(412)
+            .expectHeader().valueEquals(HttpHeaders.ETAG, updatedEtag);
+        assertThat(etagOf("/api/books/" + book.getId())).isEqualTo(updatedEtag);
+    }
+
+    @Test
+    void isbnGetFollowsANewBookThatReusesADeletedBooksIsbn() {
+        String isbn = uniqueIsbn();
+        Book deleted = create("Deleted", isbn);
+        String deletedEtag = etagOf("/api/books/isbn/" + isbn);
+        client.delete().uri("/api/books/{id}", deleted.getId()).exchange().expectStatus().isNoContent();
+
+        Book replacement = create("Replacement", isbn);
+
+        client.get().uri("/api/books/isbn/{isbn}", isbn)
+            .header(HttpHeaders.IF_NONE_MATCH, deletedEtag)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + replacement.getId() + "-" + micros(replacement) + "\"")
+            .expectBody(Book.class)
+            .value(book -> assertThat(book.getId()).isEqualTo(replacement.getId()));
+    }
+
+    @Test
+    void pagesContinueFromTheCursorAndTheLastPageHasNoCursor() {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(create("Paged " + i, uniqueIsbn()).getId());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        long after = created.getFirst() - 1;
+        String cursor;
+        do {
+            EntityExchangeResult<List<Book>> page = page(after, 2);
+            List<Book> books = page.getResponseBody();
+            assertThat(books).hasSizeLessThanOrEqualTo(2);
+            books.forEach(book -> seen.add(book.getId()));
+            cursor = page.getResponseHeaders().getFirst("X-Next-Cursor");
+            if (cursor != null) {
+                assertThat(books).hasSize(2);
+                assertThat(cursor).isEqualTo(String.valueOf(books.getLast().getId()));
+                after = Long.parseLong(cursor);
+            }
+        } while (cursor != null);
+
+        assertThat(seen).isSorted().doesNotHaveDuplicates().containsSubsequence(created);
+        assertThat(seen.getFirst()).isEqualTo(created.getFirst());
+    }
+
+    @Test
+    void pageSizeIsClampedToTheConfiguredRange() {
+        Book marker = create("Clamp marker", uniqueIsbn());
+        String body = IntStream.range(0, 501)
+            .mapToObj(i -> "{\"title\":\"Clamped " + i + "\",\"author\":\"Clamp Author\",\"isbn\":\""
+                + uniqueIsbn() + "\",\"publishedYear\":2024}")
+            .collect(Collectors.joining("\n"));
+        client.post().uri("/api/books/bulk")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus().isCreated();
+
+        EntityExchangeResult<List<Book>> largest = page(marker.getId(), 100_000);
+        assertThat(largest.getResponseBody()).hasSize(500)
+            .allSatisfy(book -> assertThat(book.getAuthor()).isEqualTo("Clamp Author"));
+        assertThat(largest.getResponseHeaders().getFirst("X-Next-Cursor"))
+            .isEqualTo(String.valueOf(largest.getResponseBody().getLast().getId()));
+
+        for (int size : new int[] {0, -5}) {
+            EntityExchangeResult<List<Book>> smallest = page(marker.getId() - 1, size);
+            assertThat(smallest.getResponseBody()).extracting(Book::getId).containsExactly(marker.getId());
+            assertThat(smallest.getResponseHeaders().getFirst("X-Next-Cursor"))
+                .isEqualTo(String.valueOf(marker.getId()));
+        }
+    }
+
+    @Test
+    void streamWritesOneJsonLinePerBook() {
+        String isbn = uniqueIsbn();
+        create("Streamed", isbn);
+        int total = 0;
+        long after = 0;
+        String cursor;
+        do {
+            EntityExchangeResult<List<Book>> page = page(after, 500);
+            total += page.getResponseBody().size();
+            cursor = page.getResponseHeaders().getFirst("X-Next-Cursor");
+            after = cursor != null ? Long.parseLong(cursor) : after;
+        } while (cursor != null);
+
+        byte[] body = client.get().uri("/api/books/stream")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .expectBody().returnResult().getResponseBody();
+        List<String> lines = new String(body, StandardCharsets.UTF_8).lines().toList();
+
+        assertThat(lines).hasSize(total)
+            .allSatisfy(line -> assertThat(line).startsWith("{\"id\":").endsWith("}"))
+            .anySatisfy(line -> assertThat(line).contains("\"isbn\":\"" + isbn + "\""));
+    }
+
+    private Book create(String title, String isbn) {
+        return client.post().uri("/api/books")
+            .bodyValue(new Book(title, "Test Author", isbn, 2024))
+            .exchange()
+            .expectStatus().isCreated()
+            .expectBody(Book.class)
+            .returnResult()
+            .getResponseBody();
+    }
+
+    private EntityExchangeResult<List<Book>> page(long after, int size) {
+        return client.get().uri("/api/books?after={after}&size={size}", after, size)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(Book.class)
+            .returnResult();
+    }
+
+    private String etagOf(String uri) {
+        return client.get().uri(uri)
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(Book.class)
+            .getResponseHeaders().getETag();
+    }
+
+    private static long micros(Book book) {
+        return ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), book.getUpdatedAt());
+    }
+
+    static String uniqueIsbn() {
+        return "T" + UUID.randomUUID().toString().replace("-", "").substring(0, 15);
+    }
+}
@@ -0,0 +1,156 @@
+package io.arconia.demo.controller;
+
+import io.arconia.demo.entity.CachedSession;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end tests for the cache and session endpoints against the dev services Redis. Every test
+ * uses its own keys and users, so they do not depend on what is already cached.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class CacheControllerTests {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    void batchCachesTypedEntriesWithTheDefaultTtl() {
+        String key = uniqueKey();
+
+        postBatch("{\"entries\":[{\"key\":\"" + key + "\",\"value\":{\"n\":1}},"
+                + "{\"key\":\"" + key + "-2\",\"value\":\"two\",\"ttl\":60}]}")
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$.count").isEqualTo(2);
+
+        client.get().uri("/api/cache/values?keys={a},{b}", key, key + "-2")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.values['" + key + "'].n").isEqualTo(1)
+            .jsonPath("$.values['" + key + "-2']").isEqualTo("two")
+            .jsonPath("$.missing").isEmpty();
+    }
+
+    @Test
+    void batchRejectsEntriesThatDoNotBindOrValidate() {
+        String key = uniqueKey();
+
+        postBatch("{\"entries\":[{\"key\":\"" + key + "\",\"value\":1,\"ttl\":\"soon\"}]}")
+            .expectStatus().isBadRequest();
+        postBatch("{\"entries\":[{\"key\":{\"nested\":true},\"value\":1}]}")
+            .expectStatus().isBadRequest();
+        postBatch("{\"entries\":[{\"key\":\"" + key + "\"}]}")
+            .expectStatus().isBadRequest()
+            .expectBody().jsonPath("$.error").exists();
+        postBatch("{\"entries\":[{\"key\":\"" + key + "\",\"value\":1,\"ttl\":-5}]}")
+            .expectStatus().isBadRequest();
+        postBatch("{\"entries\":[null]}")
+            .expectStatus().isBadRequest();
+
+        client.get().uri("/api/cache/values/{key}", key).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void singleValueRejectsAMissingKey() {
+        client.post().uri("/api/cache/values")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"value\":1}")
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void sessionPagesCoverEverySessionAndTheLastPageHasNoCursor() {
+        String userId = uniqueKey();
+        Set<String> created = new HashSet<>();
+        // Large enough for Redis to store the set as a hash table, which SSCAN returns in steps
+        for (int i = 0; i < 200; i++) {
+            created.add(createSession(userId, "pager-" + i).getId());
+        }
+
+        Set<String> seen = new HashSet<>();
+        int pages = 0;
+        String cursor = "0";
+        do {
+            EntityExchangeResult<List<CachedSession>> page = client.get()
+                .uri("/api/cache/sessions?cursor={cursor}&count=20", cursor)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CachedSession.class)
+                .returnResult();
+            page.getResponseBody().forEach(session -> seen.add(session.getId()));
+            cursor = page.getResponseHeaders().getFirst("X-Next-Cursor");
+            assertThat(cursor).as("Redis' final cursor 0 is not passed on").isNotEqualTo("0");
+            pages++;
+        } while (cursor != null && pages < 10_000);
+
+        assertThat(cursor).isNull();
+        assertThat(pages).isGreaterThan(1);
+        assertThat(seen).containsAll(created);
+    }
+
+    @Test
+    void sessionsRejectCursorsThatAreNotUnsignedDecimals() {
+        for (String cursor : List.of("abc", "-1", "1e3", "18446744073709551616")) {
+            client.get().uri("/api/cache/sessions?cursor={cursor}", cursor)
+                .exchange()
+                .expectStatus().isBadRequest();
+        }
+    }
+
+    @Test
+    void userSessionsAreReadBackWithEveryField() {
+        String userId = uniqueKey();
+        CachedSession first = createSession(userId, "alice");
+        CachedSession second = createSession(userId, "bob");
+
+        List<CachedSession> sessions = client.get().uri("/api/cache/sessions/user/{userId}", userId)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(CachedSession.class)
+            .returnResult()
+            .getResponseBody();
+
+        assertThat(sessions)
+            .usingRecursiveFieldByFieldElementComparatorIgnoringFields("lastAccessedAt")
+            .containsExactlyInAnyOrder(first, second);
+    }
+
+    private CachedSession createSession(String userId, String username) {
+        return client.post().uri("/api/cache/sessions")
+            .bodyValue(Map.of("userId", userId, "username", username, "data", "data of " + username))
+            .exchange()
+            .expectStatus().isCreated()
+            .expectBody(CachedSession.class)
+            .returnResult()
+            .getResponseBody();
+    }
+
+    private WebTestClient.ResponseSpec postBatch(String body) {
+        return client.post().uri("/api/cache/values/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(body)
+            .exchange();
+    }
+
+    private static String uniqueKey() {
+        return "test-" + UUID.randomUUID();
+    }
+}
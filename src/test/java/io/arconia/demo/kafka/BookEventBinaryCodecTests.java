@@ -0,0 +1,78 @@
+package io.arconia.demo.kafka;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Round-trip and compatibility tests for the binary {@link BookEvent} wire format.
+ */
+class BookEventBinaryCodecTests {
+
+    private static final String TOPIC = "book-events";
+
+    @Test
+    void roundTripsAllFields() {
+        BookEvent event = new BookEvent(UUID.randomUUID().toString(), "BOOK_UPDATED", 42L,
+            "Designing Data-Intensive Applications", "Martin Kleppmann");
+        BookEvent decoded = new BookEventDeserializer().deserialize(TOPIC,
+            new BookEventBinarySerializer().serialize(TOPIC, event));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void roundTripsAggregatedEventsAndNonUuidIds() {
+        BookEvent event = new BookEvent("import-7", "BOOKS_IMPORTED", null, null, null);
+        event.setBookIds(LongStream.rangeClosed(1_000, 1_499).boxed().toList());
+
+        BookEvent decoded = BookEventBinaryCodec.decode(BookEventBinaryCodec.encode(event));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void skipsFieldsAddedByNewerProducers() {
+        BookEvent event = new BookEvent(UUID.randomUUID().toString(), "BOOK_DELETED", 7L, "Title", "Author");
+        byte[] payload = BookEventBinaryCodec.encode(event);
+        byte[] withUnknownField = Arrays.copyOf(payload, payload.length + 4);
+        withUnknownField[payload.length] = 99;
+        withUnknownField[payload.length + 1] = 2;
+        withUnknownField[payload.length + 2] = 1;
+        withUnknownField[payload.length + 3] = 2;
+
+        assertThat(BookEventBinaryCodec.decode(withUnknownField)).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void rejectsBookIdCountsLargerThanThePayload() {
+        byte[] corrupt = {BookEventBinaryCodec.VERSION, BookEventBinaryCodec.TAG_BOOK_IDS, 5,
+            (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+
+        assertThatIllegalArgumentException().isThrownBy(() -> BookEventBinaryCodec.decode(corrupt))
+            .withMessageContaining("book id count");
+    }
+
+    @Test
+    void readsJsonPayloadsDuringMigration() {
+        BookEvent event = new BookEvent(UUID.randomUUID().toString(), "BOOK_CREATED", 1L, "Title", "Author");
+        event.setBookIds(List.of(1L));
+        byte[] json;
+        try (JsonSerializer<BookEvent> serializer = new JsonSerializer<>()) {
+            json = serializer.serialize(TOPIC, new RecordHeaders(), event);
+        }
+
+        BookEvent decoded = new BookEventDeserializer().deserialize(TOPIC, new RecordHeaders(), json);
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+        assertThat(BookEventBinaryCodec.encode(event).length).isLessThan(json.length / 2);
+    }
+}
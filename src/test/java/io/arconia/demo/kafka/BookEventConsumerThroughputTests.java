@@ -0,0 +1,157 @@
+package io.arconia.demo.kafka;
+
+import io.arconia.demo.service.BookCacheService;
+import io.opentelemetry.api.OpenTelemetry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Throughput tests replaying the book events topic through the record and batch listeners, checking
+ * that every event is handled and that each partition is handled in offset order.
+ * Uses an embedded Kafka broker from spring-kafka-test. JVM only, since it relies on Mockito.
+ */
+@DisabledInNativeImage
+@EmbeddedKafka(partitions = 3, topics = {"book-events-record", "book-events-batch"})
+class BookEventConsumerThroughputTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookEventConsumerThroughputTests.class);
+    private static final int EVENT_COUNT = 5_000;
+    private static final int PARTITIONS = 3;
+
+    @Test
+    void recordListenerReplaysTopic(EmbeddedKafkaBroker broker) throws Exception {
+        String topic = "book-events-record";
+        publishUpdates(broker, topic);
+        Queue<Long> handled = new ConcurrentLinkedQueue<>();
+        CountDownLatch processed = new CountDownLatch(EVENT_COUNT);
+        BookEventConsumer consumer = new BookEventConsumer(recordingCacheService(handled, processed),
+            OpenTelemetry.noop().getMeter("test"));
+
+        ContainerProperties containerProperties = new ContainerProperties(topic);
+        containerProperties.setMessageListener(
+            (MessageListener<String, BookEvent>) consumer::handleBookEvent);
+
+        double eventsPerSecond = replay(broker, containerProperties, processed, PARTITIONS, Map.of());
+        logger.info("Record listener replayed {} events at {} events/s", EVENT_COUNT, Math.round(eventsPerSecond));
+        assertHandledInPartitionOrder(handled);
+    }
+
+    @Test
+    void batchListenerReplaysTopic(EmbeddedKafkaBroker broker) throws Exception {
+        String topic = "book-events-batch";
+        publishUpdates(broker, topic);
+        Queue<Long> handled = new ConcurrentLinkedQueue<>();
+        CountDownLatch processed = new CountDownLatch(EVENT_COUNT);
+        BookEventConsumer consumer = new BookEventConsumer(recordingCacheService(handled, processed),
+            OpenTelemetry.noop().getMeter("test"));
+        AtomicInteger maxPartitionsPerBatch = new AtomicInteger();
+
+        ContainerProperties containerProperties = new ContainerProperties(topic);
+        containerProperties.setAckMode(ContainerProperties.AckMode.BATCH);
+        containerProperties.setMessageListener((BatchMessageListener<String, BookEvent>) records -> {
+            int partitions = (int) records.stream().map(ConsumerRecord::partition).distinct().count();
+            maxPartitionsPerBatch.accumulateAndGet(partitions, Math::max);
+            consumer.handleBookEvents(records);
+        });
+
+        // One consumer polling the whole topic at once, so batches span partitions and fan out
+        double eventsPerSecond = replay(broker, containerProperties, processed, 1,
+            Map.<String, Object>of(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, EVENT_COUNT));
+        logger.info("Batch listener replayed {} events at {} events/s", EVENT_COUNT, Math.round(eventsPerSecond));
+        assertThat(maxPartitionsPerBatch.get()).isGreaterThan(1);
+        assertHandledInPartitionOrder(handled);
+    }
+
+    private static BookCacheService recordingCacheService(Queue<Long> handled, CountDownLatch processed) {
+        BookCacheService bookCacheService = mock(BookCacheService.class);
+        doAnswer(invocation -> {
+            handled.add(invocation.getArgument(0));
+            processed.countDown();
+            return null;
+        }).when(bookCacheService).evict(anyLong());
+        return bookCacheService;
+    }
+
+    /**
+     * Book {@code n} was sent to partition {@code n % PARTITIONS} in increasing order, so within a
+     * partition the handled ids must be increasing and complete.
+     */
+    private static void assertHandledInPartitionOrder(Queue<Long> handled) {
+        assertThat(handled).hasSize(EVENT_COUNT).doesNotHaveDuplicates();
+        Map<Long, List<Long>> byPartition = handled.stream()
+            .collect(Collectors.groupingBy(bookId -> bookId % PARTITIONS));
+        byPartition.values().forEach(bookIds -> assertThat(bookIds).isSorted());
+    }
+
+    private static void publishUpdates(EmbeddedKafkaBroker broker, String topic) {
+        Map<String, Object> producerProps = KafkaTestUtils.producerProps(broker);
+        DefaultKafkaProducerFactory<String, BookEvent> producerFactory =
+            new DefaultKafkaProducerFactory<>(producerProps, new StringSerializer(), new JsonSerializer<>());
+        KafkaTemplate<String, BookEvent> template = new KafkaTemplate<>(producerFactory);
+        for (long bookId = 0; bookId < EVENT_COUNT; bookId++) {
+            BookEvent event = new BookEvent(UUID.randomUUID().toString(), "BOOK_UPDATED", bookId,
+                "Title " + bookId, "Author " + (bookId % 100));
+            template.send(topic, (int) (bookId % PARTITIONS), String.valueOf(bookId), event);
+        }
+        template.flush();
+        producerFactory.destroy();
+    }
+
+    private static double replay(EmbeddedKafkaBroker broker, ContainerProperties containerProperties,
+                                 CountDownLatch processed, int concurrency,
+                                 Map<String, Object> extraConsumerProps) throws InterruptedException {
+        Map<String, Object> consumerProps = KafkaTestUtils.consumerProps(
+            "throughput-" + UUID.randomUUID(), "false", broker);
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        consumerProps.putAll(extraConsumerProps);
+        DefaultKafkaConsumerFactory<String, BookEvent> consumerFactory = new DefaultKafkaConsumerFactory<>(
+            consumerProps, new StringDeserializer(), new JsonDeserializer<>(BookEvent.class));
+
+        ConcurrentMessageListenerContainer<String, BookEvent> container =
+            new ConcurrentMessageListenerContainer<>(consumerFactory, containerProperties);
+        container.setConcurrency(concurrency);
+
+        long start = System.nanoTime();
+        container.start();
+        try {
+            assertThat(processed.await(60, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            container.stop();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        return EVENT_COUNT / elapsedSeconds;
+    }
+}
@@ -0,0 +1,222 @@
+package io.arconia.demo.kafka;
+
+import io.opentelemetry.api.OpenTelemetry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link BookEventPublisher} against a producer whose acknowledgements are completed by the test.
+ */
+class BookEventPublisherTests {
+
+    private static final Duration LONG_WINDOW = Duration.ofMinutes(1);
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    private final StubProducer producer = new StubProducer();
+    private BookEventPublisher publisher;
+
+    @AfterEach
+    void stopPublisher() throws InterruptedException {
+        if (publisher != null) {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    void coalescesQueuedUpdatesAndCompletesEveryFuture() throws Exception {
+        start(10, Duration.ofSeconds(1), BookEventPublisher.OverflowPolicy.FAIL_FAST, 10);
+
+        CompletableFuture<Void> first = publisher.publish(event("BOOK_UPDATED", 1L, "First"));
+        CompletableFuture<Void> second = publisher.publish(event("BOOK_UPDATED", 1L, "Second"));
+
+        Send send = producer.nextSend();
+        assertThat(send.event().getBookTitle()).isEqualTo("Second");
+        assertThat(first).isNotDone();
+
+        send.ack();
+
+        assertThat(first).succeedsWithin(WAIT);
+        assertThat(second).succeedsWithin(WAIT);
+        assertThat(producer.sends).isEmpty();
+    }
+
+    @Test
+    void doesNotCoalesceAcrossOtherEventsOfTheBook() throws Exception {
+        start(10, Duration.ofSeconds(1), BookEventPublisher.OverflowPolicy.FAIL_FAST, 10);
+
+        publisher.publish(event("BOOK_UPDATED", 1L, "First"));
+        publisher.publish(event("BOOK_DELETED", 1L, "First"));
+        publisher.publish(event("BOOK_UPDATED", 1L, "Second"));
+
+        assertThat(producer.nextSend().event().getEventType()).isEqualTo("BOOK_UPDATED");
+        assertThat(producer.nextSend().event().getEventType()).isEqualTo("BOOK_DELETED");
+        assertThat(producer.nextSend().event().getBookTitle()).isEqualTo("Second");
+    }
+
+    @Test
+    void failFastRejectsWhenTheQueueIsFull() {
+        start(1, LONG_WINDOW, BookEventPublisher.OverflowPolicy.FAIL_FAST, 10);
+
+        CompletableFuture<Void> queued = publisher.publish(event("BOOK_CREATED", 1L, "First"));
+        CompletableFuture<Void> overflow = publisher.publish(event("BOOK_CREATED", 2L, "Second"));
+
+        assertRejected(overflow);
+        assertThat(queued).isNotDone();
+    }
+
+    @Test
+    void dropOldestFailsTheOldestQueuedEvent() {
+        start(1, LONG_WINDOW, BookEventPublisher.OverflowPolicy.DROP_OLDEST, 10);
+
+        CompletableFuture<Void> oldest = publisher.publish(event("BOOK_CREATED", 1L, "First"));
+        CompletableFuture<Void> newest = publisher.publish(event("BOOK_CREATED", 2L, "Second"));
+
+        assertRejected(oldest);
+        assertThat(newest).isNotDone();
+    }
+
+    @Test
+    void blockRejectsAfterTheBlockTimeout() {
+        publisher = new BookEventPublisher(producer, OpenTelemetry.noop().getMeter("test"), 1, LONG_WINDOW,
+            BookEventPublisher.OverflowPolicy.BLOCK, Duration.ofMillis(100), 10);
+        publisher.start();
+
+        publisher.publish(event("BOOK_CREATED", 1L, "First"));
+        long start = System.nanoTime();
+        CompletableFuture<Void> overflow = publisher.publish(event("BOOK_CREATED", 2L, "Second"));
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertRejected(overflow);
+    }
+
+    @Test
+    void releasesTheInFlightPermitWhenASendFails() throws Exception {
+        start(10, Duration.ZERO, BookEventPublisher.OverflowPolicy.FAIL_FAST, 1);
+
+        CompletableFuture<Void> failed = publisher.publish(event("BOOK_CREATED", 1L, "First"));
+        Send first = producer.nextSend();
+        publisher.publish(event("BOOK_CREATED", 2L, "Second"));
+        assertThat(producer.sends.poll(200, TimeUnit.MILLISECONDS)).isNull();
+
+        first.fail(new IllegalStateException("broker down"));
+
+        assertThat(failed).failsWithin(WAIT)
+            .withThrowableOfType(ExecutionException.class)
+            .withCauseInstanceOf(IllegalStateException.class);
+        assertThat(producer.nextSend().event().getBookId()).isEqualTo(2L);
+    }
+
+    @Test
+    void releasesTheInFlightPermitWhenSendThrows() throws Exception {
+        start(10, Duration.ZERO, BookEventPublisher.OverflowPolicy.FAIL_FAST, 1);
+        producer.throwOnNextSend.set(new IllegalStateException("producer closed"));
+
+        CompletableFuture<Void> failed = publisher.publish(event("BOOK_CREATED", 1L, "First"));
+        publisher.publish(event("BOOK_CREATED", 2L, "Second"));
+
+        assertThat(failed).failsWithin(WAIT)
+            .withThrowableOfType(ExecutionException.class)
+            .withCauseInstanceOf(IllegalStateException.class);
+        assertThat(producer.nextSend().event().getBookId()).isEqualTo(2L);
+    }
+
+    @Test
+    void failedSendFailsTheQueuedEventsOfTheBook() throws Exception {
+        start(10, Duration.ZERO, BookEventPublisher.OverflowPolicy.FAIL_FAST, 1);
+
+        publisher.publish(event("BOOK_CREATED", 1L, "First"));
+        Send created = producer.nextSend();
+        CompletableFuture<Void> update = publisher.publish(event("BOOK_UPDATED", 1L, "Second"));
+        publisher.publish(event("BOOK_CREATED", 2L, "Other"));
+
+        created.fail(new IllegalStateException("broker down"));
+
+        assertRejected(update);
+        assertThat(producer.nextSend().event().getBookId()).isEqualTo(2L);
+    }
+
+    @Test
+    void rejectsNewEventsOfAFailedBookUntilItsInFlightEventsComplete() throws Exception {
+        start(10, Duration.ZERO, BookEventPublisher.OverflowPolicy.FAIL_FAST, 2);
+
+        publisher.publish(event("BOOK_CREATED", 1L, "First"));
+        publisher.publish(event("BOOK_DELETED", 1L, "First"));
+        Send created = producer.nextSend();
+        Send deleted = producer.nextSend();
+
+        created.fail(new IllegalStateException("broker down"));
+        assertRejected(publisher.publish(event("BOOK_CREATED", 1L, "Again")));
+
+        deleted.ack();
+        CompletableFuture<Void> again = publisher.publish(event("BOOK_CREATED", 1L, "Again"));
+        producer.nextSend().ack();
+        assertThat(again).succeedsWithin(WAIT);
+    }
+
+    private void start(int capacity, Duration coalesceWindow, BookEventPublisher.OverflowPolicy policy,
+                       int maxInFlight) {
+        publisher = new BookEventPublisher(producer, OpenTelemetry.noop().getMeter("test"), capacity,
+            coalesceWindow, policy, Duration.ZERO, maxInFlight);
+        publisher.start();
+    }
+
+    private static BookEvent event(String type, Long bookId, String title) {
+        return new BookEvent(type + "-" + bookId + "-" + title, type, bookId, title, "Author");
+    }
+
+    private static void assertRejected(CompletableFuture<Void> future) {
+        assertThat(future).failsWithin(WAIT)
+            .withThrowableOfType(ExecutionException.class)
+            .withCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    private record Send(BookEvent event, CompletableFuture<SendResult<String, BookEvent>> result) {
+
+        void ack() {
+            result.complete(null);
+        }
+
+        void fail(Throwable ex) {
+            result.completeExceptionally(ex);
+        }
+    }
+
+    private static final class StubProducer extends BookEventProducer {
+
+        private final BlockingQueue<Send> sends = new LinkedBlockingQueue<>();
+        private final AtomicReference<RuntimeException> throwOnNextSend = new AtomicReference<>();
+
+        StubProducer() {
+            super(null, OpenTelemetry.noop().getMeter("test"), false);
+        }
+
+        @Override
+        public CompletableFuture<SendResult<String, BookEvent>> send(BookEvent event) {
+            RuntimeException failure = throwOnNextSend.getAndSet(null);
+            if (failure != null) {
+                throw failure;
+            }
+            CompletableFuture<SendResult<String, BookEvent>> ack = new CompletableFuture<>();
+            sends.add(new Send(event, ack));
+            return ack;
+        }
+
+        Send nextSend() throws InterruptedException {
+            Send send = sends.poll(WAIT.toMillis(), TimeUnit.MILLISECONDS);
+            assertThat(send).as("event sent to the producer").isNotNull();
+            return send;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.arconia.demo.kafka;
+
+import io.arconia.demo.entity.BookOutboxEvent;
+import io.arconia.demo.repository.BookOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link BookOutboxRelay} against a mocked outbox repository and publisher.
+ * JVM only, since it relies on Mockito.
+ */
+@DisabledInNativeImage
+class BookOutboxRelayTests {
+
+    private static final int SHARDS = 4;
+    private static final int SHARD = 1;
+
+    private final BookOutboxRepository outboxRepository = mock();
+    private final BookEventPublisher publisher = mock();
+    private final PlatformTransactionManager transactionManager = mock();
+    private BookOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new BookOutboxRelay(outboxRepository, publisher, new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(relay, "batchSize", 500);
+        ReflectionTestUtils.setField(relay, "sendTimeoutMs", 100L);
+        ReflectionTestUtils.setField(relay, "shards", SHARDS);
+        when(outboxRepository.tryLockShard(anyInt(), anyInt())).thenReturn(true);
+        when(outboxRepository.findNextBatch(eq(SHARDS), anyInt(), anyInt())).thenReturn(List.of());
+        when(outboxRepository.findNextBatch(SHARDS, SHARD, 500))
+            .thenReturn(List.of(outboxEvent(1L, 5L), outboxEvent(2L, 9L)))
+            .thenReturn(List.of());
+    }
+
+    @Test
+    void deletesTheBatchOnceEverySendIsAcknowledged() {
+        when(publisher.publish(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relayPendingEvents();
+
+        verify(outboxRepository).deleteByIdIn(List.of(1L, 2L));
+        verify(transactionManager, never()).rollback(any());
+    }
+
+    @Test
+    void failedSendLeavesTheBatchInTheOutbox() {
+        when(publisher.publish(any())).thenReturn(CompletableFuture.completedFuture(null))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        relay.relayPendingEvents();
+
+        verify(outboxRepository, never()).deleteByIdIn(anyList());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void sendTimeoutLeavesTheBatchInTheOutbox() {
+        when(publisher.publish(any())).thenReturn(new CompletableFuture<>());
+
+        relay.relayPendingEvents();
+
+        verify(outboxRepository, never()).deleteByIdIn(anyList());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void skipsAShardRelayedByAnotherReplica() {
+        when(outboxRepository.tryLockShard(anyInt(), eq(SHARD))).thenReturn(false);
+
+        relay.relayPendingEvents();
+
+        verify(outboxRepository, never()).findNextBatch(SHARDS, SHARD, 500);
+        verify(outboxRepository).findNextBatch(SHARDS, 0, 500);
+        verify(outboxRepository).findNextBatch(SHARDS, 2, 500);
+        verify(outboxRepository).findNextBatch(SHARDS, 3, 500);
+        verify(publisher, never()).publish(any());
+    }
+
+    private static BookOutboxEvent outboxEvent(Long id, Long bookId) {
+        BookOutboxEvent event = new BookOutboxEvent("BOOK_UPDATED", bookId, "Title " + bookId, "Author");
+        event.setId(id);
+        return event;
+    }
+}
@@ -0,0 +1,136 @@
+package io.arconia.demo.service;
+
+import io.arconia.demo.repository.BookQueryRepository;
+import io.arconia.demo.repository.BookView;
+import io.opentelemetry.api.OpenTelemetry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link AuthorIndex} against a mocked book repository.
+ * JVM only, since it relies on Mockito.
+ */
+@DisabledInNativeImage
+class AuthorIndexTests {
+
+    private static final String AUTHOR = "Ursula K. Le Guin";
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final BookQueryRepository repository = mock();
+    private final AuthorIndex index = new AuthorIndex(repository, mock(PlatformTransactionManager.class),
+        OpenTelemetry.noop().getMeter("test"), Duration.ofSeconds(5));
+
+    @AfterEach
+    void tearDown() {
+        index.close();
+    }
+
+    @Test
+    void fallsBackToTheDatabaseUntilTheSnapshotIsLoadedOrWhileLagging() throws Exception {
+        assertThat(index.findByAuthor(AUTHOR)).isEmpty();
+
+        loadSnapshot(book(1L, "A Wizard of Earthsea", T0));
+        assertThat(index.findByAuthor(AUTHOR)).hasValueSatisfying(books -> assertThat(books).hasSize(1));
+
+        index.recordLag(5_001);
+        assertThat(index.findByAuthor(AUTHOR)).isEmpty();
+    }
+
+    @Test
+    void ignoresAnOlderVersionOfABook() throws Exception {
+        loadSnapshot();
+        refresh(book(1L, "The Dispossessed", T0.plusMinutes(1)));
+
+        refresh(book(1L, "Stale Title", T0));
+
+        assertThat(titles()).containsExactly("The Dispossessed");
+    }
+
+    @Test
+    void snapshotDoesNotOverwriteANewerEventOrResurrectADeletedBook() throws Exception {
+        CountDownLatch snapshotRead = new CountDownLatch(1);
+        CountDownLatch eventsApplied = new CountDownLatch(1);
+        when(repository.streamAll()).thenAnswer(invocation -> {
+            snapshotRead.countDown();
+            await(eventsApplied);
+            return Stream.of(book(1L, "Old Title", T0), book(2L, "Deleted", T0));
+        });
+
+        index.loadSnapshotAsync();
+        assertThat(snapshotRead.await(5, TimeUnit.SECONDS)).isTrue();
+        refresh(book(1L, "New Title", T0.plusMinutes(1)));
+        index.remove(2L);
+        eventsApplied.countDown();
+        awaitReady();
+
+        assertThat(titles()).containsExactly("New Title");
+    }
+
+    @Test
+    void readsKeepTheirListWhileItIsReplaced() throws Exception {
+        loadSnapshot(book(1L, "The Lathe of Heaven", T0));
+        List<BookView> before = index.findByAuthor(AUTHOR).orElseThrow();
+
+        refresh(book(2L, "The Word for World Is Forest", T0));
+        index.remove(1L);
+
+        assertThat(before).extracting(BookView::id).containsExactly(1L);
+        assertThatThrownBy(() -> before.add(book(3L, "Mutated", T0)))
+            .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(index.findByAuthor(AUTHOR).orElseThrow()).extracting(BookView::id).containsExactly(2L);
+    }
+
+    private void loadSnapshot(BookView... books) throws InterruptedException {
+        when(repository.streamAll()).thenReturn(Stream.of(books));
+        index.loadSnapshotAsync();
+        awaitReady();
+    }
+
+    private void refresh(BookView book) {
+        when(repository.findAllById(anyCollection())).thenReturn(List.of(book));
+        index.refresh(List.of(book.id()));
+    }
+
+    private List<String> titles() {
+        return index.findByAuthor(AUTHOR).orElseThrow().stream().map(BookView::title).toList();
+    }
+
+    private void awaitReady() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        Optional<List<BookView>> books = index.findByAuthor(AUTHOR);
+        while (books.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            books = index.findByAuthor(AUTHOR);
+        }
+        assertThat(books).as("author index ready").isPresent();
+    }
+
+    private static BookView book(Long id, String title, LocalDateTime updatedAt) {
+        return new BookView(id, title, AUTHOR, null, 1970, T0, updatedAt);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package io.arconia.demo.service;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.arconia.demo.entity.Book;
+import io.opentelemetry.api.OpenTelemetry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link BookCacheService} read-through and eviction against a Redis container. The
+ * loaders stand in for the database, and a loader that evicts before returning plays an update
+ * that commits while a miss is loading.
+ */
+@Testcontainers
+@DisabledInNativeImage
+class BookCacheServiceTests {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private BookCacheService cache;
+    private Long id;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getFirstMappedPort());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        RedisTemplate<String, Book> bookRedisTemplate = new RedisTemplate<>();
+        bookRedisTemplate.setConnectionFactory(connectionFactory);
+        bookRedisTemplate.setKeySerializer(new StringRedisSerializer());
+        bookRedisTemplate.setValueSerializer(
+            new Jackson2JsonRedisSerializer<>(JsonMapper.builder().findAndAddModules().build(), Book.class));
+        bookRedisTemplate.afterPropertiesSet();
+        cache = new BookCacheService(bookRedisTemplate, new StringRedisTemplate(connectionFactory),
+            OpenTelemetry.noop().getMeter("test"), Duration.ofMinutes(1));
+        id = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+
+    @Test
+    void missLoadsOnceAndLaterLookupsHit() {
+        Book book = book("Cached", T0);
+
+        assertThat(cache.findById(id, load(book))).get().extracting(Book::getTitle).isEqualTo("Cached");
+        assertThat(cache.findById(id, load(book))).get().extracting(Book::getTitle).isEqualTo("Cached");
+        assertThat(cache.findVersion(id, ignored -> Optional.empty())).contains(new BookVersion(id, T0));
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void missThatLoadedBeforeAnUpdateCommittedIsNotCached() {
+        Book stale = book("Before update", T0);
+        Book fresh = book("After update", T0.plusSeconds(1));
+
+        Optional<Book> raced = cache.findById(id, ignored -> {
+            loads.incrementAndGet();
+            // The update commits and evicts after this miss read the row
+            cache.evict(id);
+            return Optional.of(stale);
+        });
+
+        assertThat(raced).get().extracting(Book::getTitle).isEqualTo("Before update");
+        assertThat(cache.findById(id, load(fresh))).get().extracting(Book::getTitle).isEqualTo("After update");
+        assertThat(cache.findById(id, load(fresh))).get().extracting(Book::getTitle).isEqualTo("After update");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void versionMissThatLoadedBeforeAnUpdateCommittedIsNotCached() {
+        Optional<BookVersion> raced = cache.findVersion(id, ignored -> {
+            cache.evict(id);
+            return Optional.of(T0);
+        });
+
+        assertThat(raced).contains(new BookVersion(id, T0));
+        assertThat(cache.findVersion(id, ignored -> Optional.of(T0.plusSeconds(1))))
+            .contains(new BookVersion(id, T0.plusSeconds(1)));
+    }
+
+    @Test
+    void evictsOnlyOnceTheTransactionCommits() {
+        Book book = book("Cached", T0);
+        cache.findById(id, load(book));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evictAfterCommit(id);
+            assertThat(cache.findById(id, load(book))).isPresent();
+            assertThat(loads).as("still cached before commit").hasValue(1);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        cache.findById(id, load(book));
+        assertThat(loads).hasValue(2);
+    }
+
+    private Function<Long, Optional<Book>> load(Book book) {
+        return ignored -> {
+            loads.incrementAndGet();
+            return Optional.of(book);
+        };
+    }
+
+    private Book book(String title, LocalDateTime updatedAt) {
+        Book book = new Book(title, "Test Author", null, 2024);
+        book.setId(id);
+        book.setUpdatedAt(updatedAt);
+        return book;
+    }
+}
@@ -0,0 +1,104 @@
+package io.arconia.demo.service;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link BookExportService} COPY exports against a PostgreSQL container migrated with
+ * the application's Flyway scripts.
+ */
+@Testcontainers
+@DisabledInNativeImage
+class BookExportServiceTests {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static DataSource dataSource;
+    private static BookExportService exportService;
+
+    @BeforeAll
+    static void createBooks() {
+        Flyway.configure()
+            .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+            .load()
+            .migrate();
+        dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        exportService = new BookExportService(dataSource);
+        JdbcClient jdbc = JdbcClient.create(dataSource);
+        jdbc.sql("DELETE FROM books").update();
+        insert(jdbc, "Old, but gold", "export-1", 1990, T0);
+        insert(jdbc, "Middle", "export-2", 2000, T0.plusDays(1));
+        insert(jdbc, "Recent", "export-3", 2010, T0.plusDays(2));
+    }
+
+    @Test
+    void csvHasAHeaderAndOneRowPerBookInIdOrder() throws IOException {
+        List<String> lines = exportCsv(new BookExportFilter(null, null, null, null));
+
+        assertThat(lines.getFirst()).isEqualTo("id,title,author,isbn,published_year,created_at,updated_at");
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(1)).contains(",\"Old, but gold\",Export Author,export-1,1990,");
+        assertThat(lines.get(2)).contains(",Middle,Export Author,export-2,2000,");
+        assertThat(lines.get(3)).contains(",Recent,Export Author,export-3,2010,");
+    }
+
+    @Test
+    void filtersByPublishedYearAndUpdatedAt() throws IOException {
+        assertThat(exportCsv(new BookExportFilter(1995, 2010, null, null)))
+            .hasSize(3)
+            .anySatisfy(line -> assertThat(line).contains("export-2"))
+            .anySatisfy(line -> assertThat(line).contains("export-3"));
+        // updatedTo is exclusive
+        assertThat(exportCsv(new BookExportFilter(null, null, T0, T0.plusDays(2))))
+            .hasSize(3)
+            .noneSatisfy(line -> assertThat(line).contains("export-3"));
+    }
+
+    @Test
+    void filterValuesAreBoundRatherThanWrittenIntoTheStatement() throws IOException {
+        BookExportFilter filter = new BookExportFilter(1995, 2005, T0, T0.plusDays(5));
+
+        assertThat(filter.whereClause())
+            .doesNotContain("1995", "2005", T0.toString())
+            .contains("current_setting('book_export.published_from')");
+        assertThat(filter.settings()).containsEntry("book_export.published_from", "1995")
+            .containsEntry("book_export.updated_to", T0.plusDays(5).toString());
+        assertThat(exportCsv(filter)).hasSize(2).last().asString().contains("export-2");
+    }
+
+    private static List<String> exportCsv(BookExportFilter filter) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.export(BookExportService.Format.CSV, filter, out);
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize((int) rows + 1);
+        return lines;
+    }
+
+    private static void insert(JdbcClient jdbc, String title, String isbn, int publishedYear, LocalDateTime updatedAt) {
+        jdbc.sql("""
+                INSERT INTO books (title, author, isbn, published_year, created_at, updated_at)
+                VALUES (?, 'Export Author', ?, ?, ?, ?)
+                """)
+            .params(title, isbn, publishedYear, T0, updatedAt)
+            .update();
+    }
+}
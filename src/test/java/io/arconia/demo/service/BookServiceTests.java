@@ -0,0 +1,108 @@
+package io.arconia.demo.service;
+
+import io.arconia.demo.entity.Book;
+import io.arconia.demo.entity.BookOutboxEvent;
+import io.arconia.demo.repository.BookOutboxRepository;
+import io.arconia.demo.repository.BookQueryRepository;
+import io.arconia.demo.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the chunked {@link BookService#importBooks} against mocked repositories and a mocked
+ * transaction manager, so each chunk's transaction boundaries can be observed.
+ * JVM only, since it relies on Mockito.
+ */
+@DisabledInNativeImage
+class BookServiceTests {
+
+    private static final int CHUNK_SIZE = 2;
+
+    private final BookRepository bookRepository = mock();
+    private final BookOutboxRepository outboxRepository = mock();
+    private final PlatformTransactionManager transactionManager = mock();
+    private final EntityManager entityManager = mock();
+    private final AtomicLong ids = new AtomicLong();
+    private BookService bookService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectProvider<AuthorIndex> authorIndex = mock();
+        bookService = new BookService(bookRepository, mock(BookQueryRepository.class), outboxRepository,
+            mock(BookCacheService.class), new TransactionTemplate(transactionManager), authorIndex, entityManager);
+        ReflectionTestUtils.setField(bookService, "bulkChunkSize", CHUNK_SIZE);
+        when(bookRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            if (books.stream().anyMatch(book -> book.getTitle() == null)) {
+                throw new DataIntegrityViolationException("null value in column \"title\"");
+            }
+            books.forEach(book -> book.setId(ids.incrementAndGet()));
+            return new ArrayList<>(books);
+        });
+    }
+
+    @Test
+    void commitsEachChunkWithOneImportedEventAndAClearedPersistenceContext() {
+        BulkImportResult result = bookService.importBooks(books("A", "B", "C", "D", "E").iterator());
+
+        assertThat(result.imported()).isEqualTo(5);
+        assertThat(result.chunks()).isEqualTo(3);
+        InOrder inOrder = inOrder(bookRepository, outboxRepository, entityManager, transactionManager);
+        for (int chunk = 0; chunk < 3; chunk++) {
+            inOrder.verify(bookRepository).saveAll(anyList());
+            inOrder.verify(outboxRepository).save(any());
+            inOrder.verify(entityManager).flush();
+            inOrder.verify(entityManager).clear();
+            inOrder.verify(transactionManager).commit(any());
+        }
+        ArgumentCaptor<BookOutboxEvent> events = ArgumentCaptor.forClass(BookOutboxEvent.class);
+        verify(outboxRepository, times(3)).save(events.capture());
+        assertThat(events.getAllValues())
+            .allSatisfy(event -> assertThat(event.getEventType()).isEqualTo("BOOKS_IMPORTED"))
+            .extracting(BookOutboxEvent::getBookIds)
+            .containsExactly(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+    }
+
+    @Test
+    void badInputRollsBackOnlyItsChunk() {
+        assertThatThrownBy(() -> bookService.importBooks(books("A", "B", "C", null, "E", "F").iterator()))
+            .isInstanceOf(DataIntegrityViolationException.class);
+
+        verify(transactionManager, times(1)).commit(any());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(outboxRepository, times(1)).save(any());
+        verify(bookRepository, times(2)).saveAll(anyList());
+        verify(entityManager, times(1)).flush();
+    }
+
+    private static List<Book> books(String... titles) {
+        List<Book> books = new ArrayList<>();
+        for (String title : titles) {
+            books.add(new Book(title, "Bulk Author", null, 2024));
+        }
+        return books;
+    }
+}
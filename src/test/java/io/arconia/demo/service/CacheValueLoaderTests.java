@@ -0,0 +1,170 @@
+package io.arconia.demo.service;
+
+import io.opentelemetry.api.OpenTelemetry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link CacheValueLoader} stampede protection against mocked Redis templates.
+ * JVM only, since it relies on Mockito.
+ */
+@DisabledInNativeImage
+class CacheValueLoaderTests {
+
+    private static final String KEY = "featured-books";
+    private static final String LEASE_KEY = "cache-lease:" + KEY;
+    private static final long TTL_SECONDS = 60;
+
+    private final RedisTemplate<String, Object> redisTemplate = mock();
+    private final ValueOperations<String, Object> values = mock();
+    private final StringRedisTemplate stringRedisTemplate = mock();
+    private final ValueOperations<String, String> leases = mock();
+    private final AtomicInteger loads = new AtomicInteger();
+    private CacheValueLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(stringRedisTemplate.opsForValue()).thenReturn(leases);
+        loader = new CacheValueLoader(redisTemplate, stringRedisTemplate, OpenTelemetry.noop().getMeter("test"),
+            Duration.ofMillis(200), 1.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        loader.close();
+    }
+
+    @Test
+    void collapsesConcurrentMissesIntoOneLoad() throws Exception {
+        int callers = 8;
+        CountDownLatch allRead = new CountDownLatch(callers);
+        AtomicReference<Object> stored = new AtomicReference<>();
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            allRead.countDown();
+            return Arrays.asList(null, null, null);
+        });
+        when(values.get(KEY)).thenAnswer(invocation -> stored.get());
+        when(leases.setIfAbsent(eq(LEASE_KEY), anyString(), any(Duration.class))).thenReturn(true);
+        Supplier<Object> slowLoad = () -> {
+            loads.incrementAndGet();
+            await(allRead);
+            stored.set("value");
+            return "value";
+        };
+
+        List<Future<Object>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> loader.get(KEY, TTL_SECONDS, slowLoad)));
+            }
+            for (Future<Object> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+            }
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void missWaitsForTheReplicaHoldingTheLease() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(Arrays.asList(null, null, null));
+        when(leases.setIfAbsent(eq(LEASE_KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(values.get(KEY)).thenReturn(null, "loaded elsewhere");
+
+        assertThat(loader.get(KEY, TTL_SECONDS, this::load)).isEqualTo("loaded elsewhere");
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void missLoadsItselfOnceTheLeaseExpires() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(Arrays.asList(null, null, null));
+        when(leases.setIfAbsent(eq(LEASE_KEY), anyString(), any(Duration.class))).thenReturn(false);
+
+        assertThat(loader.get(KEY, TTL_SECONDS, this::load)).isEqualTo("fresh");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void skipsEarlyRefreshWhenAnotherReplicaHoldsTheLease() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(expiringHit());
+        when(leases.setIfAbsent(eq(LEASE_KEY), anyString(), any(Duration.class))).thenReturn(false);
+
+        assertThat(loader.get(KEY, TTL_SECONDS, this::load)).isEqualTo("cached");
+
+        verify(leases, timeout(1_000)).setIfAbsent(eq(LEASE_KEY), anyString(), any(Duration.class));
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void missDoesNotShareASkippedRefresh() throws Exception {
+        CountDownLatch refreshWaiting = new CountDownLatch(1);
+        CountDownLatch missLoaded = new CountDownLatch(1);
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+            .thenReturn(expiringHit(), Arrays.asList(null, null, null));
+        when(leases.setIfAbsent(eq(LEASE_KEY), anyString(), any(Duration.class)))
+            .thenAnswer(invocation -> {
+                refreshWaiting.countDown();
+                await(missLoaded);
+                return false;
+            })
+            .thenReturn(true);
+
+        assertThat(loader.get(KEY, TTL_SECONDS, this::load)).isEqualTo("cached");
+        assertThat(refreshWaiting.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Object missed = loader.get(KEY, TTL_SECONDS, this::load);
+        missLoaded.countDown();
+
+        assertThat(missed).isEqualTo("fresh");
+        assertThat(loads).hasValue(1);
+    }
+
+    private Object load() {
+        loads.incrementAndGet();
+        return "fresh";
+    }
+
+    /**
+     * A hit one millisecond from expiry whose last load took long enough that XFetch refreshes it.
+     */
+    private static List<Object> expiringHit() {
+        return Arrays.asList("cached", 1L, 3_600_000L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
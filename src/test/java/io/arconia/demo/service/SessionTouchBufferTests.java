@@ -0,0 +1,132 @@
+package io.arconia.demo.service;
+
+import io.arconia.demo.entity.CachedSession;
+import io.opentelemetry.api.OpenTelemetry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link SessionTouchBuffer} against a Redis container. Sessions are written as the
+ * bare hashes the flush updates; the failure test flushes through a mocked template that fails
+ * once before handing the pipeline to the real one.
+ */
+@Testcontainers
+@DisabledInNativeImage
+class SessionTouchBufferTests {
+
+    private static final Duration RESOLUTION = Duration.ofSeconds(30);
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate redisTemplate;
+    private String sessionId;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getFirstMappedPort());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        sessionId = UUID.randomUUID().toString();
+    }
+
+    @Test
+    void touchesWithinTheResolutionAreNotWritten() {
+        SessionTouchBuffer buffer = buffer(redisTemplate);
+        storeSession(T0);
+
+        buffer.touch(sessionId, T0, T0 + RESOLUTION.toMillis() - 1);
+        buffer.flush();
+        assertThat(lastAccessedAt()).isEqualTo(String.valueOf(T0));
+        assertThat(redisTemplate.getExpire(key())).isEqualTo(-1L);
+
+        buffer.touch(sessionId, T0, T0 + RESOLUTION.toMillis());
+        buffer.flush();
+        assertThat(lastAccessedAt()).isEqualTo(String.valueOf(T0 + RESOLUTION.toMillis()));
+        assertThat(redisTemplate.getExpire(key())).isPositive();
+    }
+
+    @Test
+    void flushDoesNotRecreateDeletedSessions() {
+        SessionTouchBuffer buffer = buffer(redisTemplate);
+        String forgotten = sessionId;
+        storeSession(T0);
+        buffer.touch(forgotten, T0, T0 + RESOLUTION.toMillis());
+        buffer.forget(forgotten);
+        String deleted = UUID.randomUUID().toString();
+        buffer.touch(deleted, T0, T0 + RESOLUTION.toMillis());
+
+        buffer.flush();
+
+        assertThat(lastAccessedAt()).isEqualTo(String.valueOf(T0));
+        assertThat(redisTemplate.hasKey(CachedSession.KEYSPACE + ":" + deleted)).isFalse();
+    }
+
+    @Test
+    void failedFlushKeepsTheNewestTouchForTheNextFlush() {
+        StringRedisTemplate failingOnce = mock();
+        when(failingOnce.executePipelined(any(RedisCallback.class)))
+            .thenThrow(new RedisConnectionFailureException("connection lost"))
+            .thenAnswer(invocation -> redisTemplate.executePipelined(invocation.<RedisCallback<?>>getArgument(0)));
+        SessionTouchBuffer buffer = buffer(failingOnce);
+        storeSession(T0);
+        long newest = T0 + 2 * RESOLUTION.toMillis();
+
+        buffer.touch(sessionId, T0, newest);
+        buffer.flush();
+        assertThat(lastAccessedAt()).isEqualTo(String.valueOf(T0));
+
+        // An older access buffered meanwhile does not replace the retained one
+        buffer.touch(sessionId, T0, T0 + RESOLUTION.toMillis());
+        buffer.flush();
+        assertThat(lastAccessedAt()).isEqualTo(String.valueOf(newest));
+    }
+
+    private SessionTouchBuffer buffer(StringRedisTemplate template) {
+        return new SessionTouchBuffer(template, OpenTelemetry.noop().getMeter("test"), RESOLUTION);
+    }
+
+    private void storeSession(long lastAccessedAt) {
+        redisTemplate.opsForHash().put(key(), "id", sessionId);
+        redisTemplate.opsForHash().put(key(), "lastAccessedAt", String.valueOf(lastAccessedAt));
+    }
+
+    private String lastAccessedAt() {
+        return (String) redisTemplate.opsForHash().get(key(), "lastAccessedAt");
+    }
+
+    private String key() {
+        return CachedSession.KEYSPACE + ":" + sessionId;
+    }
+}
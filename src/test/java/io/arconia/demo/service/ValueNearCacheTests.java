@@ -0,0 +1,166 @@
+package io.arconia.demo.service;
+
+import io.lettuce.core.KillArgs;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.boot.autoconfigure.data.redis.RedisConnectionDetails;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ValueNearCache} against a Redis container, with a mocked value serializer so
+ * the tests can pause or fail a read after Redis answered it.
+ */
+@Testcontainers
+@DisabledInNativeImage
+class ValueNearCacheTests {
+
+    private static final Duration WAIT = Duration.ofSeconds(10);
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private final RedisSerializer<Object> serializer = mock();
+    private final String key = "near-cache-test:" + UUID.randomUUID();
+    private RedisClient otherClient;
+    private StatefulRedisConnection<String, String> otherConnection;
+    private RedisCommands<String, String> other;
+    private ValueNearCache nearCache;
+
+    @BeforeEach
+    void setUp() {
+        otherClient = RedisClient.create("redis://" + redis.getHost() + ":" + redis.getFirstMappedPort());
+        otherConnection = otherClient.connect();
+        other = otherConnection.sync();
+        other.set(key, "v1");
+
+        RedisTemplate<String, Object> redisTemplate = mock();
+        doReturn(serializer).when(redisTemplate).getValueSerializer();
+        RedisConnectionDetails connectionDetails = new RedisConnectionDetails() {
+            @Override
+            public Standalone getStandalone() {
+                return Standalone.of(redis.getHost(), redis.getFirstMappedPort());
+            }
+        };
+        nearCache = new ValueNearCache(connectionDetails, redisTemplate, 100, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        nearCache.close();
+        otherConnection.close();
+        otherClient.shutdown();
+    }
+
+    @Test
+    void failedReadDoesNotBlockLaterLoadsOfTheKey() {
+        when(serializer.deserialize(any()))
+            .thenThrow(new SerializationException("corrupt"))
+            .thenAnswer(ValueNearCacheTests::decode);
+
+        assertThatThrownBy(() -> nearCache.get(key)).isInstanceOf(SerializationException.class);
+        assertThat(nearCache.get(key)).isEqualTo("v1");
+        assertThat(nearCache.get(key)).isEqualTo("v1");
+
+        // The third get is served from the L1 cache
+        verify(serializer, times(2)).deserialize(any());
+    }
+
+    @Test
+    void invalidationDuringALoadKeepsTheLoadedValueOutOfTheCache() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(serializer.deserialize(any()))
+            .thenAnswer(invocation -> {
+                reading.countDown();
+                assertThat(release.await(WAIT.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+                return decode(invocation);
+            })
+            .thenAnswer(ValueNearCacheTests::decode);
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<Object> load = executor.submit(() -> nearCache.get(key));
+            assertThat(reading.await(WAIT.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+            other.set(key, "v2");
+            nearCache.invalidate(key);
+            release.countDown();
+
+            assertThat(load.get(WAIT.toMillis(), TimeUnit.MILLISECONDS)).isEqualTo("v1");
+        }
+        assertThat(nearCache.get(key)).isEqualTo("v2");
+    }
+
+    @Test
+    void reconnectClearsValuesWhoseInvalidationsWereMissed() {
+        when(serializer.deserialize(any())).thenAnswer(ValueNearCacheTests::decode);
+        assertThat(nearCache.get(key)).isEqualTo("v1");
+        Set<String> trackingBefore = trackingClientIds();
+
+        other.clientKill(KillArgs.Builder.typeNormal());
+        // No tracking connection is left to be told about this write
+        other.set(key, "v2");
+        awaitCondition(() -> !trackingBefore.containsAll(trackingClientIds()) && nearCache.isTracking());
+
+        assertThat(nearCache.get(key)).isEqualTo("v2");
+    }
+
+    private Set<String> trackingClientIds() {
+        return other.clientList().lines()
+            .map(line -> Arrays.stream(line.split(" "))
+                .map(field -> field.split("=", 2))
+                .filter(field -> field.length == 2)
+                .collect(Collectors.toMap(field -> field[0], field -> field[1])))
+            .filter(client -> client.getOrDefault("flags", "").contains("t"))
+            .map(client -> client.get("id"))
+            .collect(Collectors.toSet());
+    }
+
+    private static Object decode(InvocationOnMock invocation) {
+        return new String(invocation.<byte[]>getArgument(0), UTF_8);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + WAIT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}